@@ -23,6 +23,11 @@ android {
         jvmTarget = JavaVersion.VERSION_11.toString()
     }
 
+    buildFeatures {
+        // Native alarm code reads BuildConfig (version code, debug flag).
+        buildConfig = true
+    }
+
     defaultConfig {
         // TODO: Specify your own unique Application ID (https://developer.android.com/studio/build/application-id.html).
         applicationId = "com.example.reminder_app"
@@ -34,6 +39,17 @@ android {
         versionName = flutter.versionName
     }
 
+    testOptions {
+        // The alarm logic is tested on the JVM behind AlarmEnvironment fakes; the few
+        // android.jar calls left on those paths (Intent, Handler) return defaults.
+        unitTests.isReturnDefaultValues = true
+    }
+
+    sourceSets {
+        // JMH benchmarks share the unit-test classpath and fakes, see BenchmarkRunner.
+        getByName("test").java.srcDir("src/benchmark/java")
+    }
+
     buildTypes {
         release {
             // TODO: Add your own signing config for the release build.
@@ -50,4 +66,14 @@ flutter {
 dependencies {
     // Needed for Java 8+ APIs (flutter_local_notifications uses this)
     coreLibraryDesugaring("com.android.tools:desugar_jdk_libs:2.1.4")
+
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("org.openjdk.jmh:jmh-core:1.37")
+    testAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+tasks.withType<Test>().configureEach {
+    // Benchmarks only run on request:
+    //   ./gradlew :app:testDebugUnitTest -Pbenchmarks --tests '*BenchmarkRunner'
+    systemProperty("reminder.benchmarks", project.hasProperty("benchmarks"))
 }
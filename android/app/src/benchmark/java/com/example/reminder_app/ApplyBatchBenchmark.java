@@ -0,0 +1,77 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of a full sync from Flutter: {@link AlarmScheduler#applyBatch} against
+ * an on-disk store and an AlarmManager that only counts calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApplyBatchBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+    private FakeContext context;
+    private List<AlarmEntry> batch;
+    private List<AlarmEntry> moved;
+    private boolean flip;
+
+    @Setup
+    public void setUp() throws IOException {
+        env.before();
+        env.backend.keepCalls = false;
+        context = env.context;
+
+        String[] types = {"standard", "safetyCritical", "routine"};
+        batch = new ArrayList<>(size);
+        moved = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            AlarmEntry entry = new AlarmEntry(id, START + (id + 1) * 60_000L, "Task " + id, "Body", types[id % 3]);
+            batch.add(entry);
+            moved.add(entry.withTime(entry.timeMillis + 30_000L));
+        }
+        AlarmScheduler.applyBatch(context, batch);
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.after();
+    }
+
+    /** Nothing changed since the last sync: a diff against the store and no registrations. */
+    @Benchmark
+    public AlarmScheduler.BatchResult unchanged() {
+        return AlarmScheduler.applyBatch(context, batch);
+    }
+
+    /** Every reminder moved: each one is registered or queued again and rewritten in the store. */
+    @Benchmark
+    public AlarmScheduler.BatchResult allChanged() {
+        flip = !flip;
+        return AlarmScheduler.applyBatch(context, flip ? moved : batch);
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.reminder_app;
+
+import org.junit.Assume;
+import org.junit.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs every JMH benchmark of this source set from the unit-test task. Skipped
+ * unless requested, see {@code app/build.gradle.kts}:
+ * <pre>
+ *   ./gradlew :app:testDebugUnitTest -Pbenchmarks --tests '*BenchmarkRunner'
+ * </pre>
+ * Add {@code -Dreminder.benchmarks.include=Quiet} to run a subset.
+ */
+public class BenchmarkRunner {
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        Assume.assumeTrue("benchmarks not requested", Boolean.getBoolean("reminder.benchmarks"));
+        String include = System.getProperty("reminder.benchmarks.include", "");
+        Options options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackage().getName() + "\\..*" + include + ".*Benchmark")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Quiet hours check on every alarm fire: the original evaluation, which read
+ * SharedPreferences, built a Calendar and parsed the day list each time,
+ * against the compiled {@link QuietSchedule} week bitmap used now.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuietHoursBenchmark {
+
+    private static final long START = AlarmEnvironmentRule.START;
+    private static final long MINUTE = 60_000L;
+    private static final int MINUTES_PER_WEEK = 7 * 24 * 60;
+
+    private final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+    private FakeContext context;
+    private FakeClock clock;
+    private SharedPreferences prefs;
+    private QuietSchedule schedule;
+    private int step;
+
+    @Setup
+    public void setUp() throws IOException {
+        env.before(); // restores the original zone in after()
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin"));
+        context = env.context;
+        clock = env.clock;
+        QuietHoursHelper.saveSettings(context, true, 22, 0, 7, 30, "0,1,2,3,4", true);
+        prefs = context.getSharedPreferences("quiet_hours_prefs", Context.MODE_PRIVATE);
+        schedule = QuietHoursHelper.getSchedule(context);
+
+        // Both must answer the same, or the comparison means nothing.
+        for (int minute = 0; minute < MINUTES_PER_WEEK; minute++) {
+            long t = START + minute * MINUTE;
+            if (legacyIsQuietHoursActive(prefs, t) != schedule.isActiveAt(t)) {
+                throw new IllegalStateException("Implementations disagree at " + t);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.after();
+    }
+
+    /** Walks the week in odd steps so both quiet and open minutes are hit. */
+    private long nextInstant() {
+        step = (step + 7919) % MINUTES_PER_WEEK;
+        return START + step * MINUTE;
+    }
+
+    @Benchmark
+    public boolean calendar() {
+        return legacyIsQuietHoursActive(prefs, nextInstant());
+    }
+
+    @Benchmark
+    public boolean compiledSchedule() {
+        clock.set(nextInstant());
+        return QuietHoursHelper.isQuietHoursActive(context);
+    }
+
+    /**
+     * The original QuietHoursHelper.isQuietHoursActive, with the current time
+     * passed in instead of read from the system clock.
+     */
+    private static boolean legacyIsQuietHoursActive(SharedPreferences prefs, long nowMillis) {
+        boolean enabled = prefs.getBoolean("quiet_hours_enabled", false);
+        if (!enabled) {
+            Log.d("QuietHoursHelper", "Quiet hours disabled");
+            return false;
+        }
+
+        Calendar now = Calendar.getInstance();
+        now.setTimeInMillis(nowMillis);
+        int currentDayOfWeek = now.get(Calendar.DAY_OF_WEEK);
+        int currentHour = now.get(Calendar.HOUR_OF_DAY);
+        int currentMinute = now.get(Calendar.MINUTE);
+
+        int ourDayIndex = (currentDayOfWeek == Calendar.SUNDAY) ? 6 : currentDayOfWeek - 2;
+
+        String daysStr = prefs.getString("quiet_hours_days", "");
+        if (daysStr.isEmpty()) {
+            Log.d("QuietHoursHelper", "No days configured");
+            return false;
+        }
+
+        String[] days = daysStr.split(",");
+        boolean isTodaySelected = false;
+        for (String day : days) {
+            try {
+                if (Integer.parseInt(day.trim()) == ourDayIndex) {
+                    isTodaySelected = true;
+                    break;
+                }
+            } catch (NumberFormatException e) {
+                // Skip invalid entries
+            }
+        }
+
+        if (!isTodaySelected) {
+            Log.d("QuietHoursHelper", "Today is not a quiet hours day");
+            return false;
+        }
+
+        int startHour = prefs.getInt("quiet_hours_start_hour", 22);
+        int startMinute = prefs.getInt("quiet_hours_start_minute", 0);
+        int endHour = prefs.getInt("quiet_hours_end_hour", 7);
+        int endMinute = prefs.getInt("quiet_hours_end_minute", 0);
+
+        int currentMinutes = currentHour * 60 + currentMinute;
+        int startMinutes = startHour * 60 + startMinute;
+        int endMinutes = endHour * 60 + endMinute;
+
+        boolean isInQuietHours;
+        if (startMinutes <= endMinutes) {
+            isInQuietHours = currentMinutes >= startMinutes && currentMinutes < endMinutes;
+        } else {
+            isInQuietHours = currentMinutes >= startMinutes || currentMinutes < endMinutes;
+        }
+
+        Log.d("QuietHoursHelper", "Quiet hours active: " + isInQuietHours
+                + " (current: " + currentHour + ":" + currentMinute
+                + ", range: " + startHour + ":" + startMinute + " - " + endHour + ":" + endMinute + ")");
+        return isInQuietHours;
+    }
+}
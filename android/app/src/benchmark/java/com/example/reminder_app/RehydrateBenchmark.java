@@ -0,0 +1,75 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of restoring every pending reminder after a reboot with
+ * {@link AlarmScheduler#rehydrate}, which has to stay well inside the
+ * BOOT_COMPLETED broadcast budget.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RehydrateBenchmark {
+
+    @Param({"1000", "5000"})
+    public int size;
+
+    private final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+    private FakeContext context;
+
+    @Setup
+    public void setUp() throws IOException {
+        env.before();
+        env.backend.keepCalls = false;
+        context = env.context;
+
+        // A few reminders fell due while the phone was off; the rest are ahead.
+        String[] types = {"standard", "safetyCritical", "routine"};
+        List<AlarmEntry> entries = new ArrayList<>(size);
+        for (int id = 0; id < size; id++) {
+            long time = id % 50 == 0 ? START - 60_000L : START + (id + 1) * 60_000L;
+            String recurrence = id % 10 == 0 ? "FREQ=DAILY" : null;
+            entries.add(new AlarmEntry(id, time, "Task " + id, "Body", types[id % 3], recurrence));
+        }
+        env.store.update(entries, new ArrayList<>());
+    }
+
+    @TearDown
+    public void tearDown() {
+        env.after();
+    }
+
+    /** Boot: a new process reads the store from disk, then registers everything. */
+    @Benchmark
+    public int afterBoot() {
+        env.reopenStore();
+        return AlarmScheduler.rehydrate(context);
+    }
+
+    /** Registration alone, with the store already in memory. */
+    @Benchmark
+    public int storeLoaded() {
+        return AlarmScheduler.rehydrate(context);
+    }
+}
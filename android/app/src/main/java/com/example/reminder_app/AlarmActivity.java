@@ -0,0 +1,118 @@
+package com.example.reminder_app;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager;
+import android.widget.TextView;
+
+/**
+ * Full-screen ringing alarm, shown over the lock screen.
+ *
+ * A plain native activity, so it can draw as soon as the alarm fires instead
+ * of waiting for a Flutter engine to cold start. Snooze and stop go through
+ * the same receivers as the notification actions. The Flutter engine is only
+ * started when the user chooses to open the app, so a ring that is just
+ * stopped or snoozed never pays for it.
+ */
+public class AlarmActivity extends Activity {
+
+    private static final String TAG = "AlarmActivity";
+
+    private int id = -1;
+    // Reminder whose fire-to-first-frame time has already been recorded.
+    private int measuredId = -1;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O_MR1) {
+            setShowWhenLocked(true);
+            setTurnScreenOn(true);
+        } else {
+            getWindow().addFlags(WindowManager.LayoutParams.FLAG_SHOW_WHEN_LOCKED
+                    | WindowManager.LayoutParams.FLAG_TURN_SCREEN_ON);
+        }
+        getWindow().addFlags(WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
+        setContentView(R.layout.activity_alarm);
+
+        findViewById(R.id.alarm_snooze).setOnClickListener(v -> {
+            sendBroadcast(new Intent(this, SnoozeReceiver.class).putExtra("id", id));
+            finish();
+        });
+        findViewById(R.id.alarm_stop).setOnClickListener(v -> {
+            sendBroadcast(new Intent(this, StopReceiver.class).putExtra("id", id));
+            finish();
+        });
+        findViewById(R.id.alarm_open).setOnClickListener(v -> {
+            sendBroadcast(new Intent(this, StopReceiver.class).putExtra("id", id));
+            // Start Dart while the activity transition runs; MainActivity attaches to it.
+            ReminderApplication.warmUpUiEngine(this);
+            Intent open = new Intent(this, MainActivity.class)
+                    .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            startActivity(open);
+            finish();
+        });
+
+        show(getIntent());
+    }
+
+    @Override
+    protected void onNewIntent(Intent intent) {
+        super.onNewIntent(intent);
+        setIntent(intent);
+        show(intent);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Stopped or snoozed from the notification while this screen was hidden.
+        if (AlarmSessions.get(id) == null) {
+            finish();
+        }
+    }
+
+    private void show(Intent intent) {
+        id = intent.getIntExtra("id", -1);
+        AlarmSessions.Session session = AlarmSessions.get(id);
+        if (session == null) {
+            AlarmLog.d(TAG, "Alarm {} is no longer ringing", id);
+            finish();
+            return;
+        }
+        ((TextView) findViewById(R.id.alarm_title)).setText(session.entry.title);
+        ((TextView) findViewById(R.id.alarm_body)).setText(session.entry.body);
+        findViewById(R.id.alarm_snooze).setVisibility(
+                AlarmSnooze.canSnooze(this, id) ? View.VISIBLE : View.GONE);
+        measureFirstFrame(session);
+    }
+
+    /**
+     * Record the time from the alarm broadcast to this screen's next drawn frame.
+     */
+    private void measureFirstFrame(AlarmSessions.Session session) {
+        if (measuredId == session.entry.id) {
+            return;
+        }
+        measuredId = session.entry.id;
+        View decor = getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posted work runs after the frame that is about to be drawn.
+                decor.post(() -> {
+                    long elapsed = SystemClock.elapsedRealtime() - session.firedAtElapsed;
+                    AlarmMetrics.record(AlarmActivity.this, AlarmMetrics.FIRST_FRAME, elapsed);
+                    AlarmLog.d(TAG, "Alarm {} first frame {}ms after fire", session.entry.id, elapsed);
+                });
+                return true;
+            }
+        });
+    }
+}
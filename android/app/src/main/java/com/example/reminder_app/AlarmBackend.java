@@ -0,0 +1,26 @@
+package com.example.reminder_app;
+
+import android.app.PendingIntent;
+
+/**
+ * The subset of AlarmManager the scheduler uses, one method per
+ * {@link DeliveryStrategy} mode. All times are RTC_WAKEUP epoch millis.
+ * {@link AlarmManagerBackend} is the device implementation; a recording fake
+ * lets the delivery decisions run on a plain JVM.
+ */
+public interface AlarmBackend {
+
+    /** False when the app has lost the exact alarm permission (Android 12+). */
+    boolean canScheduleExactAlarms();
+
+    /** User-visible alarm clock: exempt from Doze and never deferred. */
+    void setAlarmClock(long triggerAtMillis, PendingIntent operation);
+
+    /** Exact wakeup, allowed in Doze but rate-limited there. */
+    void setExact(long triggerAtMillis, PendingIntent operation);
+
+    /** Wakeup anywhere inside the window, which the system may batch with others. */
+    void setWindow(long windowStartMillis, long windowLengthMillis, PendingIntent operation);
+
+    void cancel(PendingIntent operation);
+}
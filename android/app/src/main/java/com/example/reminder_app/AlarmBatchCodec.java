@@ -0,0 +1,150 @@
+package com.example.reminder_app;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Packed binary format used by the {@code scheduleAlarms} channel method, so a
+ * whole Firestore sync crosses the platform channel as one {@code Uint8List}
+ * instead of hundreds of boxed maps.
+ *
+ * Layout (big-endian, matching Dart's {@code ByteData} default):
+ * <pre>
+ *   byte  version (= 2)
+ *   int   count
+ *   count x {
+ *     int    id
+ *     long   timeMillis
+ *     string title
+ *     string body
+ *     string taskType
+ *     string recurrence   (version 2 only; a {@link Recurrence} rule or null)
+ *   }
+ * </pre>
+ * where each string is an int byte length (-1 for null) followed by UTF-8 bytes.
+ * Version 1 payloads are still accepted.
+ */
+public final class AlarmBatchCodec {
+
+    public static final byte VERSION = 2;
+    static final byte VERSION_WITHOUT_RECURRENCE = 1;
+
+    private AlarmBatchCodec() {
+    }
+
+    /**
+     * Decode a packed batch.
+     *
+     * @throws IllegalArgumentException if the buffer is truncated or uses an unknown version
+     */
+    public static List<AlarmEntry> decode(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            byte version = buffer.get();
+            if (version != VERSION && version != VERSION_WITHOUT_RECURRENCE) {
+                throw new IllegalArgumentException("Unsupported alarm batch version " + version);
+            }
+            int count = buffer.getInt();
+            if (count < 0) {
+                throw new IllegalArgumentException("Negative alarm count " + count);
+            }
+            List<AlarmEntry> entries = new ArrayList<>(Math.min(count, data.length / 24 + 1));
+            for (int i = 0; i < count; i++) {
+                entries.add(readEntry(buffer, version));
+            }
+            return entries;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated alarm batch", e);
+        }
+    }
+
+    /**
+     * Encode entries in the same layout {@link #decode} reads.
+     */
+    public static byte[] encode(Collection<AlarmEntry> entries) {
+        List<byte[]> encoded = new ArrayList<>(entries.size());
+        int size = 1 + 4;
+        for (AlarmEntry entry : entries) {
+            byte[] bytes = encodeEntry(entry);
+            encoded.add(bytes);
+            size += bytes.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION);
+        buffer.putInt(entries.size());
+        for (byte[] bytes : encoded) {
+            buffer.put(bytes);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Encode one entry (id, time and the four strings) without the batch header.
+     */
+    static byte[] encodeEntry(AlarmEntry entry) {
+        byte[] title = utf8(entry.title);
+        byte[] body = utf8(entry.body);
+        byte[] taskType = utf8(entry.taskType);
+        byte[] recurrence = utf8(entry.recurrence);
+        ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + stringSize(title) + stringSize(body) + stringSize(taskType)
+                + stringSize(recurrence));
+        buffer.putInt(entry.id);
+        buffer.putLong(entry.timeMillis);
+        putString(buffer, title);
+        putString(buffer, body);
+        putString(buffer, taskType);
+        putString(buffer, recurrence);
+        return buffer.array();
+    }
+
+    /**
+     * Read one entry written by {@link #encodeEntry} in the given format version, advancing the buffer.
+     *
+     * @throws BufferUnderflowException if the buffer ends mid-entry
+     */
+    static AlarmEntry readEntry(ByteBuffer buffer, byte version) {
+        int id = buffer.getInt();
+        long timeMillis = buffer.getLong();
+        String title = readString(buffer);
+        String body = readString(buffer);
+        String taskType = readString(buffer);
+        String recurrence = version >= VERSION ? readString(buffer) : null;
+        return new AlarmEntry(id, timeMillis, title, body, taskType, recurrence);
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 4 + (bytes != null ? bytes.length : 0);
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Coalesces reminders that fire close together into one burst.
+ *
+ * The first reminder rings straight away with its own full-screen
+ * notification. Every reminder that fires within the debounce window of the
+ * previous one joins that burst instead: it gets a silent notification in the
+ * same group plus an inbox-style summary, and shares the ring that is already
+ * playing, so a burst of N wakes the screen and alerts once. Safety-critical
+ * reminders never join a burst; they always escalate individually.
+ *
+ * A burst lasts while any of its members is still ringing. Only the first
+ * {@link #MAX_MEMBER_NOTIFICATIONS} members get a notification of their own,
+ * and summary updates are batched, which keeps large bursts inside the
+ * system's per-app notification count and post-rate limits.
+ */
+public final class AlarmBurst {
+
+    private static final String TAG = "AlarmBurst";
+    private static final String PREFS_NAME = "alarm_burst_prefs";
+    private static final String KEY_WINDOW_MS = "window_ms";
+
+    static final long DEFAULT_WINDOW_MS = 5000;
+    static final long MAX_WINDOW_MS = 60_000;
+
+    /** Notification group shared by the members of a burst. */
+    public static final String GROUP_KEY = "com.example.reminder_app.ALARM_BURST";
+    /** Notification and stop-action id of the burst summary. */
+    public static final int SUMMARY_ID = Integer.MIN_VALUE + 1;
+
+    static final int MAX_MEMBER_NOTIFICATIONS = 20;
+    static final long SUMMARY_REFRESH_MS = 250;
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    // Guarded by AlarmBurst.class.
+    private static final LinkedHashMap<Integer, AlarmEntry> members = new LinkedHashMap<>();
+    private static long lastJoinMillis;
+    private static boolean summaryScheduled;
+    private static volatile long windowMillis = -1;
+
+    private AlarmBurst() {
+    }
+
+    /**
+     * True if {@code entry} must ring on its own whatever else is ringing.
+     */
+    public static boolean escalatesIndividually(AlarmEntry entry) {
+        return DeliveryStrategy.TASK_TYPE_SAFETY_CRITICAL.equals(entry.taskType);
+    }
+
+    /**
+     * Record that {@code entry} fired at {@code now}.
+     *
+     * @return 0 if it starts a new burst and should be delivered normally,
+     *         otherwise the size of the burst it joined; the summary is
+     *         refreshed shortly after
+     */
+    public static int join(Context context, AlarmEntry entry, long now) {
+        int size;
+        synchronized (AlarmBurst.class) {
+            long window = window(context);
+            boolean joins = window > 0 && !members.isEmpty() && now - lastJoinMillis <= window;
+            if (!joins) {
+                members.clear();
+            }
+            members.remove(entry.id);
+            members.put(entry.id, entry);
+            lastJoinMillis = now;
+            if (!joins) {
+                return 0;
+            }
+            size = members.size();
+        }
+        AlarmLog.d(TAG, "Alarm {} joined a burst of {}", entry.id, size);
+        refreshSummarySoon(context);
+        return size;
+    }
+
+    /**
+     * A member stopped ringing: refresh or drop the summary.
+     */
+    public static void onStopped(Context context, int id) {
+        synchronized (AlarmBurst.class) {
+            if (members.remove(id) == null) {
+                return;
+            }
+        }
+        refreshSummarySoon(context);
+    }
+
+    /**
+     * Stop every member of the current burst, e.g. from the summary's stop action.
+     * Reminders ringing outside the burst keep ringing.
+     */
+    public static void stopAll(Context context) {
+        List<Integer> ids;
+        synchronized (AlarmBurst.class) {
+            ids = new ArrayList<>(members.keySet());
+            members.clear();
+        }
+        for (int id : ids) {
+            AlarmSnooze.reset(context, id);
+            AlarmSessions.stop(context, id);
+        }
+        AlarmEnvironment.notifier(context).cancel(SUMMARY_ID);
+    }
+
+    /**
+     * Forget the burst without touching notifications, once nothing rings any more.
+     */
+    public static synchronized void clear() {
+        members.clear();
+    }
+
+    private static void refreshSummarySoon(Context context) {
+        Context appContext = context.getApplicationContext();
+        synchronized (AlarmBurst.class) {
+            if (summaryScheduled) {
+                return;
+            }
+            summaryScheduled = true;
+        }
+        MAIN.postDelayed(() -> postSummary(appContext), SUMMARY_REFRESH_MS);
+    }
+
+    /**
+     * Post or drop the summary for the current members; runs
+     * {@link #SUMMARY_REFRESH_MS} after the first change it covers.
+     */
+    @VisibleForTesting
+    static void postSummary(Context context) {
+        List<AlarmEntry> current;
+        synchronized (AlarmBurst.class) {
+            summaryScheduled = false;
+            current = new ArrayList<>(members.values());
+        }
+        AlarmNotifier notifier = AlarmEnvironment.notifier(context);
+        if (current.size() < 2) {
+            notifier.cancel(SUMMARY_ID);
+        } else {
+            notifier.burstSummary(current);
+        }
+    }
+
+    public static void saveSettings(Context context, long windowMs) {
+        prefs(context).edit().putLong(KEY_WINDOW_MS, windowMs).apply();
+        windowMillis = windowMs;
+    }
+
+    public static HashMap<String, Object> getSettings(Context context) {
+        HashMap<String, Object> settings = new HashMap<>();
+        settings.put("windowMs", window(context));
+        return settings;
+    }
+
+    private static long window(Context context) {
+        long window = windowMillis;
+        if (window < 0) {
+            window = prefs(context).getLong(KEY_WINDOW_MS, DEFAULT_WINDOW_MS);
+            windowMillis = window;
+        }
+        return window;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.reminder_app;
+
+import java.util.Objects;
+
+/**
+ * Immutable description of one scheduled reminder, as handed over by the
+ * Flutter side through the alarm MethodChannel.
+ */
+public final class AlarmEntry {
+
+    public final int id;
+    public final long timeMillis;
+    public final String title;
+    public final String body;
+    public final String taskType;
+    /** {@link Recurrence} rule, or null for a one-shot reminder. */
+    public final String recurrence;
+
+    public AlarmEntry(int id, long timeMillis, String title, String body, String taskType) {
+        this(id, timeMillis, title, body, taskType, null);
+    }
+
+    public AlarmEntry(int id, long timeMillis, String title, String body, String taskType, String recurrence) {
+        this.id = id;
+        this.timeMillis = timeMillis;
+        this.title = title;
+        this.body = body;
+        this.taskType = taskType != null ? taskType : "standard";
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Same reminder, due at {@code newTimeMillis}.
+     */
+    public AlarmEntry withTime(long newTimeMillis) {
+        return new AlarmEntry(id, newTimeMillis, title, body, taskType, recurrence);
+    }
+
+    /**
+     * True if registering {@code other} would produce exactly the same alarm as
+     * this one, i.e. no AlarmManager call is needed when switching between them.
+     */
+    public boolean sameAlarmAs(AlarmEntry other) {
+        return samePayloadAs(other) && timeMillis == other.timeMillis;
+    }
+
+    /**
+     * True if {@code other} is the same reminder with the same content,
+     * whenever it is due.
+     */
+    public boolean samePayloadAs(AlarmEntry other) {
+        return other != null
+                && id == other.id
+                && Objects.equals(title, other.title)
+                && Objects.equals(body, other.body)
+                && taskType.equals(other.taskType)
+                && Objects.equals(recurrence, other.recurrence);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import androidx.annotation.VisibleForTesting;
+import java.io.File;
+
+/**
+ * The seams between the alarm logic and the platform: time, AlarmManager,
+ * the on-disk stores, notifications and the alarm sound. Production code asks
+ * here instead of calling the platform directly, so tests can swap in fakes
+ * with the {@code set} methods and drive scheduling, quiet hours and delivery
+ * on a plain JVM.
+ */
+public final class AlarmEnvironment {
+
+    private static final String DEFERRED_FILE_NAME = "deferred_alarms.log";
+    private static final String RINGING_FILE_NAME = "alarm_ringing.log";
+
+    private static volatile Clock clock = Clock.SYSTEM;
+    private static volatile AlarmBackend backend;
+    private static volatile ReminderStore store;
+    private static volatile ReminderStore deferredStore;
+    private static volatile ReminderStore ringingStore;
+    private static volatile SnoozeStore snoozeStore;
+    private static volatile AlarmNotifier notifier;
+    private static volatile AlarmSound sound;
+
+    private AlarmEnvironment() {
+    }
+
+    public static Clock clock() {
+        return clock;
+    }
+
+    public static long now() {
+        return clock.currentTimeMillis();
+    }
+
+    public static AlarmBackend backend(Context context) {
+        AlarmBackend b = backend;
+        if (b == null) {
+            synchronized (AlarmEnvironment.class) {
+                if (backend == null) {
+                    backend = new AlarmManagerBackend(context.getApplicationContext());
+                }
+                b = backend;
+            }
+        }
+        return b;
+    }
+
+    /** Every pending reminder, see {@link AlarmScheduler}. */
+    public static ReminderStore store(Context context) {
+        ReminderStore s = store;
+        return s != null ? s : AlarmStore.get(context);
+    }
+
+    /** Reminders held back by quiet hours, see {@link DeferredAlarms}. */
+    public static ReminderStore deferredStore(Context context) {
+        ReminderStore s = deferredStore;
+        if (s == null) {
+            synchronized (AlarmEnvironment.class) {
+                if (deferredStore == null) {
+                    deferredStore = new AlarmStore(new File(context.getFilesDir(), DEFERRED_FILE_NAME));
+                }
+                s = deferredStore;
+            }
+        }
+        return s;
+    }
+
+    /** Payloads of the reminders that are ringing, see {@link AlarmSessions}. */
+    public static ReminderStore ringingStore(Context context) {
+        ReminderStore s = ringingStore;
+        if (s == null) {
+            synchronized (AlarmEnvironment.class) {
+                if (ringingStore == null) {
+                    ringingStore = new AlarmStore(new File(context.getFilesDir(), RINGING_FILE_NAME));
+                }
+                s = ringingStore;
+            }
+        }
+        return s;
+    }
+
+    public static SnoozeStore snoozeStore(Context context) {
+        SnoozeStore s = snoozeStore;
+        return s != null ? s : SnoozeStore.get(context);
+    }
+
+    public static AlarmNotifier notifier(Context context) {
+        AlarmNotifier n = notifier;
+        if (n == null) {
+            synchronized (AlarmEnvironment.class) {
+                if (notifier == null) {
+                    notifier = new SystemNotifier(context.getApplicationContext());
+                }
+                n = notifier;
+            }
+        }
+        return n;
+    }
+
+    public static AlarmSound sound(Context context) {
+        AlarmSound s = sound;
+        return s != null ? s : AlarmPlayer.get(context);
+    }
+
+    @VisibleForTesting
+    public static void setClock(Clock alarmClock) {
+        clock = alarmClock != null ? alarmClock : Clock.SYSTEM;
+    }
+
+    @VisibleForTesting
+    public static void setBackend(AlarmBackend alarmBackend) {
+        backend = alarmBackend;
+    }
+
+    @VisibleForTesting
+    public static void setStore(ReminderStore reminderStore) {
+        store = reminderStore;
+    }
+
+    @VisibleForTesting
+    public static void setDeferredStore(ReminderStore reminderStore) {
+        deferredStore = reminderStore;
+    }
+
+    @VisibleForTesting
+    public static void setRingingStore(ReminderStore reminderStore) {
+        ringingStore = reminderStore;
+    }
+
+    @VisibleForTesting
+    public static void setSnoozeStore(SnoozeStore store) {
+        snoozeStore = store;
+    }
+
+    @VisibleForTesting
+    public static void setNotifier(AlarmNotifier alarmNotifier) {
+        notifier = alarmNotifier;
+    }
+
+    @VisibleForTesting
+    public static void setSound(AlarmSound alarmSound) {
+        sound = alarmSound;
+    }
+
+    /**
+     * Drop every replacement; each seam goes back to its platform default on next use.
+     */
+    @VisibleForTesting
+    public static synchronized void reset() {
+        clock = Clock.SYSTEM;
+        backend = null;
+        store = null;
+        deferredStore = null;
+        ringingStore = null;
+        snoozeStore = null;
+        notifier = null;
+        sound = null;
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import androidx.annotation.VisibleForTesting;
+import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.plugin.common.MethodChannel;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Queue of alarm actions for Dart, delivered to the headless background engine
+ * of {@link ReminderApplication} without opening any UI.
+ *
+ * Nothing is queued and no engine is started until the app opts in with
+ * {@link #setEnabled}, i.e. once it has a Dart handler that does more than log.
+ *
+ * Events are appended to a small file as they happen, so they survive the
+ * process being killed once the receiver finishes. They are handed over in a
+ * single {@code onAlarmEvents} call {@link #BATCH_WINDOW_MS} after the first
+ * one, and only while nothing is ringing, so the engine never starts
+ * while the alarm screen is drawing. The payload is a flat {@code long[]} of
+ * {@value #EVENT_SIZE} values per event:
+ * <pre>
+ *   type, reminder id, epoch millis
+ * </pre>
+ * A batch is deleted once Dart has handled it and sent again otherwise, so a
+ * handler may see an event twice after a crash but never loses one.
+ */
+public final class AlarmEvents {
+
+    private static final String TAG = "AlarmEvents";
+    static final String CHANNEL = "com.example.reminder_app/alarm_events";
+
+    public static final int FIRED = 1;
+    public static final int SNOOZED = 2;
+    public static final int STOPPED = 3;
+
+    static final int EVENT_SIZE = 3;
+    private static final int EVENT_BYTES = EVENT_SIZE * 8;
+    static final long BATCH_WINDOW_MS = 500;
+    static final int MAX_PENDING = 256;
+
+    private static final String PREFS_NAME = "alarm_events_prefs";
+    private static final String KEY_ENABLED = "enabled";
+    private static final String PENDING_FILE_NAME = "alarm_events.bin";
+    private static final String SENDING_FILE_NAME = "alarm_events.sending";
+
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private static volatile int enabled = -1;
+
+    // Guarded by AlarmEvents.class.
+    private static boolean flushScheduled;
+    private static boolean dartReady;
+    private static boolean sending;
+    private static int dropped;
+
+    // Main thread only.
+    private static MethodChannel channel;
+
+    private AlarmEvents() {
+    }
+
+    /**
+     * Opt in to (or out of) event delivery to Dart.
+     */
+    public static void setEnabled(Context context, boolean on) {
+        prefs(context).edit().putBoolean(KEY_ENABLED, on).apply();
+        enabled = on ? 1 : 0;
+    }
+
+    public static boolean isEnabled(Context context) {
+        int on = enabled;
+        if (on < 0) {
+            on = prefs(context).getBoolean(KEY_ENABLED, false) ? 1 : 0;
+            enabled = on;
+        }
+        return on == 1;
+    }
+
+    /**
+     * Record one event; safe to call from any thread.
+     */
+    public static void post(Context context, int type, int id) {
+        if (!isEnabled(context)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        synchronized (AlarmEvents.class) {
+            File file = new File(appContext.getFilesDir(), PENDING_FILE_NAME);
+            if (file.length() >= (long) MAX_PENDING * EVENT_BYTES) {
+                dropped++;
+                return;
+            }
+            try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file, true))) {
+                out.writeLong(type);
+                out.writeLong(id);
+                out.writeLong(AlarmEnvironment.now());
+            } catch (IOException e) {
+                AlarmLog.e(TAG, "Failed to record alarm event for {}", id, e);
+                return;
+            }
+        }
+        scheduleFlush(appContext);
+    }
+
+    private static void scheduleFlush(Context context) {
+        synchronized (AlarmEvents.class) {
+            if (flushScheduled || !AlarmSessions.isEmpty()) {
+                // Whatever ends the ringing posts an event, which flushes.
+                return;
+            }
+            flushScheduled = true;
+        }
+        MAIN.postDelayed(() -> flush(context), BATCH_WINDOW_MS);
+    }
+
+    private static void flush(Context context) {
+        synchronized (AlarmEvents.class) {
+            flushScheduled = false;
+            if (sending || !AlarmSessions.isEmpty() || !hasEvents(context)) {
+                return;
+            }
+        }
+        ensureChannel(context);
+
+        long[] batch;
+        int lost;
+        synchronized (AlarmEvents.class) {
+            if (!dartReady || sending) {
+                return; // backgroundReady flushes
+            }
+            batch = takeBatch(context);
+            if (batch == null) {
+                return;
+            }
+            sending = true;
+            lost = dropped;
+            dropped = 0;
+        }
+        if (lost > 0) {
+            AlarmLog.w(TAG, "Dropped {} alarm events, queue full", lost);
+        }
+        AlarmLog.d(TAG, "Delivering {} alarm events to Dart", batch.length / EVENT_SIZE);
+        channel.invokeMethod("onAlarmEvents", batch, new MethodChannel.Result() {
+            @Override
+            public void success(Object result) {
+                synchronized (AlarmEvents.class) {
+                    sending = false;
+                    new File(context.getFilesDir(), SENDING_FILE_NAME).delete();
+                }
+                scheduleFlush(context); // anything posted meanwhile
+            }
+
+            @Override
+            public void error(String code, String message, Object details) {
+                AlarmLog.e(TAG, "Dart failed to handle alarm events, keeping them: {}", String.valueOf(message));
+                synchronized (AlarmEvents.class) {
+                    sending = false;
+                }
+            }
+
+            @Override
+            public void notImplemented() {
+                error("notImplemented", "no onAlarmEvents handler", null);
+            }
+        });
+    }
+
+    private static boolean hasEvents(Context context) {
+        File dir = context.getFilesDir();
+        return new File(dir, SENDING_FILE_NAME).length() > 0 || new File(dir, PENDING_FILE_NAME).length() > 0;
+    }
+
+    /**
+     * The batch to send: a batch that was not acknowledged last time, otherwise
+     * everything recorded since. Null if there is nothing to send.
+     */
+    private static long[] takeBatch(Context context) {
+        File sendingFile = new File(context.getFilesDir(), SENDING_FILE_NAME);
+        if (!sendingFile.exists()) {
+            File pendingFile = new File(context.getFilesDir(), PENDING_FILE_NAME);
+            if (!pendingFile.exists() || !pendingFile.renameTo(sendingFile)) {
+                return null;
+            }
+        }
+        long[] batch = read(sendingFile);
+        if (batch.length == 0) {
+            sendingFile.delete();
+            return null;
+        }
+        return batch;
+    }
+
+    /**
+     * Events recorded and not yet handed to Dart, oldest first.
+     */
+    @VisibleForTesting
+    static synchronized long[] pending(Context context) {
+        long[] sendingEvents = read(new File(context.getFilesDir(), SENDING_FILE_NAME));
+        long[] pendingEvents = read(new File(context.getFilesDir(), PENDING_FILE_NAME));
+        long[] all = new long[sendingEvents.length + pendingEvents.length];
+        System.arraycopy(sendingEvents, 0, all, 0, sendingEvents.length);
+        System.arraycopy(pendingEvents, 0, all, sendingEvents.length, pendingEvents.length);
+        return all;
+    }
+
+    private static long[] read(File file) {
+        // A torn last record from a crash mid-append is ignored.
+        int events = (int) (file.length() / EVENT_BYTES);
+        long[] values = new long[events * EVENT_SIZE];
+        if (events == 0) {
+            return values;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = in.readLong();
+            }
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to read alarm events", e);
+            return new long[0];
+        }
+        return values;
+    }
+
+    private static void ensureChannel(Context context) {
+        if (channel != null) {
+            return;
+        }
+        FlutterEngine engine = ReminderApplication.backgroundEngine(context);
+        channel = new MethodChannel(engine.getDartExecutor().getBinaryMessenger(), CHANNEL);
+        channel.setMethodCallHandler((call, result) -> {
+            if (call.method.equals("backgroundReady")) {
+                synchronized (AlarmEvents.class) {
+                    dartReady = true;
+                }
+                result.success(null);
+                flush(context);
+            } else {
+                result.notImplemented();
+            }
+        });
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,409 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.util.Log;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logging facade for the native alarm path.
+ *
+ * Messages are templates with {@code {}} placeholders, filled from primitive
+ * long arguments and at most one trailing string, so a call site never builds
+ * a string itself. Logcat output is limited to warnings and errors unless this
+ * is a debug build ({@link #DEBUG} is a compile-time constant, so release
+ * builds drop the debug formatting entirely).
+ *
+ * Every message, in every build, is also appended to a memory-mapped ring of
+ * fixed-size binary records for post-mortem debugging. A record holds the
+ * template id, level and raw arguments; templates are kept in a small
+ * dictionary file, each written once. The string argument is copied into the
+ * record itself, cut to {@value #MAX_STRING_CHARS} chars, so reminder titles
+ * never take up dictionary slots. Recording a message whose template has been
+ * seen before does not allocate. {@link #export} renders the ring as text.
+ *
+ * Ring record layout ({@value #RECORD_SIZE} bytes):
+ * <pre>
+ *   long epochMillis, int templateId (0 = empty), int stringLength (-1 = none),
+ *   byte level, byte longCount, byte truncated, 5 bytes padding, long[4] args,
+ *   char[{@value #MAX_STRING_CHARS}] string
+ * </pre>
+ */
+public final class AlarmLog {
+
+    private static final String TAG = "AlarmLog";
+    private static final String RING_FILE_NAME = "alarm_trace.ring";
+    private static final String DICTIONARY_FILE_NAME = "alarm_trace.dict";
+
+    public static final boolean DEBUG = BuildConfig.DEBUG;
+
+    private static final int MAGIC = 0x414c5452; // "ALTR"
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 128;
+    private static final int STRING_OFFSET = 56;
+    private static final int MAX_STRING_CHARS = (RECORD_SIZE - STRING_OFFSET) / 2;
+    private static final int CAPACITY = 4096;
+    private static final int MAX_DICTIONARY_SIZE = 4096;
+
+    private static final ConcurrentHashMap<String, Integer> dictionary = new ConcurrentHashMap<>();
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private static String[] dictionaryTexts = new String[64];
+    private static String[] dictionaryTags = new String[64];
+    private static DataOutputStream dictionaryOut;
+    private static volatile MappedByteBuffer ring;
+    private static volatile boolean initialized;
+
+    private AlarmLog() {
+    }
+
+    /**
+     * Open the trace files; {@link ReminderApplication} does this once at
+     * startup, on a background thread. Messages logged before this only go to
+     * logcat.
+     */
+    public static void init(Context context) {
+        if (initialized) {
+            return;
+        }
+        synchronized (AlarmLog.class) {
+            if (initialized) {
+                return;
+            }
+            File dir = context.getApplicationContext().getFilesDir();
+            loadDictionary(new File(dir, DICTIONARY_FILE_NAME));
+            ring = openRing(new File(dir, RING_FILE_NAME));
+            initialized = true;
+        }
+    }
+
+    public static void d(String tag, String msg) {
+        log(Log.DEBUG, tag, msg, 0, 0, 0, 0, 0, null, null);
+    }
+
+    public static void d(String tag, String msg, long a) {
+        log(Log.DEBUG, tag, msg, 1, a, 0, 0, 0, null, null);
+    }
+
+    public static void d(String tag, String msg, long a, long b) {
+        log(Log.DEBUG, tag, msg, 2, a, b, 0, 0, null, null);
+    }
+
+    public static void d(String tag, String msg, long a, long b, long c) {
+        log(Log.DEBUG, tag, msg, 3, a, b, c, 0, null, null);
+    }
+
+    public static void d(String tag, String msg, long a, long b, long c, long d) {
+        log(Log.DEBUG, tag, msg, 4, a, b, c, d, null, null);
+    }
+
+    public static void d(String tag, String msg, String s) {
+        log(Log.DEBUG, tag, msg, 0, 0, 0, 0, 0, s, null);
+    }
+
+    public static void d(String tag, String msg, long a, String s) {
+        log(Log.DEBUG, tag, msg, 1, a, 0, 0, 0, s, null);
+    }
+
+    public static void d(String tag, String msg, long a, long b, long c, long d, String s) {
+        log(Log.DEBUG, tag, msg, 4, a, b, c, d, s, null);
+    }
+
+    public static void w(String tag, String msg) {
+        log(Log.WARN, tag, msg, 0, 0, 0, 0, 0, null, null);
+    }
+
+    public static void w(String tag, String msg, long a) {
+        log(Log.WARN, tag, msg, 1, a, 0, 0, 0, null, null);
+    }
+
+    public static void w(String tag, String msg, long a, long b) {
+        log(Log.WARN, tag, msg, 2, a, b, 0, 0, null, null);
+    }
+
+    public static void e(String tag, String msg) {
+        log(Log.ERROR, tag, msg, 0, 0, 0, 0, 0, null, null);
+    }
+
+    public static void e(String tag, String msg, long a) {
+        log(Log.ERROR, tag, msg, 1, a, 0, 0, 0, null, null);
+    }
+
+    public static void e(String tag, String msg, long a, long b) {
+        log(Log.ERROR, tag, msg, 2, a, b, 0, 0, null, null);
+    }
+
+    public static void e(String tag, String msg, String s) {
+        log(Log.ERROR, tag, msg, 0, 0, 0, 0, 0, s, null);
+    }
+
+    public static void e(String tag, String msg, Throwable tr) {
+        log(Log.ERROR, tag, msg, 0, 0, 0, 0, 0, null, tr);
+    }
+
+    public static void e(String tag, String msg, long a, Throwable tr) {
+        log(Log.ERROR, tag, msg, 1, a, 0, 0, 0, null, tr);
+    }
+
+    public static void e(String tag, String msg, String s, Throwable tr) {
+        log(Log.ERROR, tag, msg, 0, 0, 0, 0, 0, s, tr);
+    }
+
+    private static void log(int level, String tag, String msg, int longCount,
+            long a, long b, long c, long d, String s, Throwable tr) {
+        if (DEBUG || level >= Log.WARN) {
+            String text = format(msg, longCount, a, b, c, d, s);
+            if (tr != null) {
+                Log.println(level, tag, text + '\n' + Log.getStackTraceString(tr));
+            } else {
+                Log.println(level, tag, text);
+            }
+        }
+
+        MappedByteBuffer buffer = ring;
+        if (buffer == null) {
+            return;
+        }
+        int templateId = intern(tag, msg);
+        if (templateId < 0) {
+            return;
+        }
+        int stringLength = -1;
+        if (s != null) {
+            stringLength = Math.min(s.length(), MAX_STRING_CHARS);
+            if (stringLength < s.length() && Character.isHighSurrogate(s.charAt(stringLength - 1))) {
+                stringLength--; // never keep half a surrogate pair
+            }
+        }
+
+        // Each writer claims its own slot, so absolute puts never overlap. The template
+        // id is cleared first and written last, so a torn record reads as empty.
+        int slot = (int) (sequence.getAndIncrement() % CAPACITY);
+        int offset = HEADER_SIZE + slot * RECORD_SIZE;
+        buffer.putInt(offset + 8, 0);
+        buffer.putLong(offset, System.currentTimeMillis());
+        buffer.putInt(offset + 12, stringLength);
+        buffer.put(offset + 16, (byte) level);
+        buffer.put(offset + 17, (byte) longCount);
+        buffer.put(offset + 18, (byte) (s != null && stringLength < s.length() ? 1 : 0));
+        buffer.putLong(offset + 24, a);
+        buffer.putLong(offset + 32, b);
+        buffer.putLong(offset + 40, c);
+        buffer.putLong(offset + 48, d);
+        for (int i = 0; i < stringLength; i++) {
+            buffer.putChar(offset + STRING_OFFSET + 2 * i, s.charAt(i));
+        }
+        buffer.putInt(offset + 8, templateId + 1);
+    }
+
+    /**
+     * Render the trace ring, oldest record first, one line per message.
+     */
+    public static String export(Context context) {
+        init(context);
+        MappedByteBuffer buffer = ring;
+        if (buffer == null) {
+            return "";
+        }
+        SimpleDateFormat time = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+        StringBuilder out = new StringBuilder();
+        int start = (int) (sequence.get() % CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            int offset = HEADER_SIZE + ((start + i) % CAPACITY) * RECORD_SIZE;
+            int templateId = buffer.getInt(offset + 8) - 1;
+            if (templateId < 0) {
+                continue;
+            }
+            String template;
+            String tag;
+            synchronized (AlarmLog.class) {
+                template = templateId < dictionary.size() ? dictionaryTexts[templateId] : null;
+                tag = template != null ? dictionaryTags[templateId] : null;
+            }
+            if (template == null) {
+                continue;
+            }
+            int stringLength = Math.min(buffer.getInt(offset + 12), MAX_STRING_CHARS);
+            String s = null;
+            if (stringLength >= 0) {
+                StringBuilder chars = new StringBuilder(stringLength + 3);
+                for (int c = 0; c < stringLength; c++) {
+                    chars.append(buffer.getChar(offset + STRING_OFFSET + 2 * c));
+                }
+                if (buffer.get(offset + 18) != 0) {
+                    chars.append("...");
+                }
+                s = chars.toString();
+            }
+            out.append(time.format(new Date(buffer.getLong(offset))))
+                    .append(' ').append(levelChar(buffer.get(offset + 16)))
+                    .append('/').append(tag).append(": ")
+                    .append(format(template, buffer.get(offset + 17),
+                            buffer.getLong(offset + 24), buffer.getLong(offset + 32),
+                            buffer.getLong(offset + 40), buffer.getLong(offset + 48),
+                            s))
+                    .append('\n');
+        }
+        return out.toString();
+    }
+
+    static String format(String msg, int longCount, long a, long b, long c, long d, String s) {
+        StringBuilder out = new StringBuilder(msg.length() + 32);
+        int arg = 0;
+        int from = 0;
+        int at;
+        while ((at = msg.indexOf("{}", from)) >= 0) {
+            out.append(msg, from, at);
+            if (arg < longCount) {
+                out.append(arg == 0 ? a : arg == 1 ? b : arg == 2 ? c : d);
+            } else if (arg == longCount && s != null) {
+                out.append(s);
+            } else {
+                out.append("{}");
+            }
+            arg++;
+            from = at + 2;
+        }
+        return out.append(msg, from, msg.length()).toString();
+    }
+
+    private static char levelChar(int level) {
+        switch (level) {
+            case Log.VERBOSE: return 'V';
+            case Log.DEBUG: return 'D';
+            case Log.INFO: return 'I';
+            case Log.WARN: return 'W';
+            default: return 'E';
+        }
+    }
+
+    /**
+     * Id of the template {@code text} in the dictionary, adding it on first use;
+     * -1 once the dictionary is full. Only constant templates go in here.
+     */
+    private static int intern(String tag, String text) {
+        Integer id = dictionary.get(text);
+        if (id != null) {
+            return id;
+        }
+        synchronized (AlarmLog.class) {
+            id = dictionary.get(text);
+            if (id != null) {
+                return id;
+            }
+            int next = dictionary.size();
+            if (next >= MAX_DICTIONARY_SIZE) {
+                return -1;
+            }
+            if (dictionaryOut != null) {
+                try {
+                    dictionaryOut.writeUTF(tag);
+                    dictionaryOut.writeUTF(text);
+                    dictionaryOut.flush();
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to extend trace dictionary", e);
+                }
+            }
+            return add(tag, text);
+        }
+    }
+
+    private static void loadDictionary(File file) {
+        if (file.exists()) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                byte[] data = new byte[(int) raf.length()];
+                raf.readFully(data);
+                ByteArrayInputStream bytes = new ByteArrayInputStream(data);
+                DataInputStream in = new DataInputStream(bytes);
+                int good = 0;
+                try {
+                    while (bytes.available() > 0) {
+                        String tag = in.readUTF();
+                        String text = in.readUTF();
+                        add(tag, text);
+                        good = data.length - bytes.available();
+                    }
+                } catch (EOFException e) {
+                    // Torn final entry: cut it off so new entries line up again
+                    raf.setLength(good);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to read trace dictionary", e);
+            }
+        }
+        try {
+            dictionaryOut = new DataOutputStream(new FileOutputStream(file, true));
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open trace dictionary, tracing disabled", e);
+        }
+    }
+
+    private static int add(String tag, String text) {
+        int next = dictionary.size();
+        if (next == dictionaryTexts.length) {
+            dictionaryTexts = Arrays.copyOf(dictionaryTexts, next * 2);
+            dictionaryTags = Arrays.copyOf(dictionaryTags, next * 2);
+        }
+        dictionaryTexts[next] = text;
+        dictionaryTags[next] = tag;
+        dictionary.put(text, next);
+        return next;
+    }
+
+    private static MappedByteBuffer openRing(File file) {
+        if (dictionaryOut == null) {
+            return null;
+        }
+        long size = HEADER_SIZE + (long) CAPACITY * RECORD_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            boolean fresh = raf.length() != size;
+            if (fresh) {
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                for (int offset = 0; offset < size; offset += 4) {
+                    buffer.putInt(offset, 0);
+                }
+                buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, CAPACITY);
+                return buffer;
+            }
+
+            // Continue after the newest record so the trail from before the restart is kept.
+            long newest = Long.MIN_VALUE;
+            int newestSlot = -1;
+            for (int slot = 0; slot < CAPACITY; slot++) {
+                int offset = HEADER_SIZE + slot * RECORD_SIZE;
+                if (buffer.getInt(offset + 8) == 0) {
+                    continue;
+                }
+                long at = buffer.getLong(offset);
+                if (at >= newest) {
+                    newest = at;
+                    newestSlot = slot;
+                }
+            }
+            sequence.set(newestSlot + 1);
+            return buffer;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to map trace ring, tracing disabled", e);
+            return null;
+        }
+    }
+}
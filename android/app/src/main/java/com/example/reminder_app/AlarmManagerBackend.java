@@ -0,0 +1,51 @@
+package com.example.reminder_app;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.os.Build;
+
+/**
+ * {@link AlarmBackend} on top of the system AlarmManager.
+ */
+public final class AlarmManagerBackend implements AlarmBackend {
+
+    private final Context context;
+    private final AlarmManager alarmManager;
+
+    public AlarmManagerBackend(Context context) {
+        this.context = context;
+        alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+    }
+
+    @Override
+    public boolean canScheduleExactAlarms() {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.S || alarmManager.canScheduleExactAlarms();
+    }
+
+    @Override
+    public void setAlarmClock(long triggerAtMillis, PendingIntent operation) {
+        // Tapping the status-bar alarm icon opens the app.
+        PendingIntent showIntent = AlarmNotifications.openApp(context);
+        alarmManager.setAlarmClock(new AlarmManager.AlarmClockInfo(triggerAtMillis, showIntent), operation);
+    }
+
+    @Override
+    public void setExact(long triggerAtMillis, PendingIntent operation) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, triggerAtMillis, operation);
+        } else {
+            alarmManager.setExact(AlarmManager.RTC_WAKEUP, triggerAtMillis, operation);
+        }
+    }
+
+    @Override
+    public void setWindow(long windowStartMillis, long windowLengthMillis, PendingIntent operation) {
+        alarmManager.setWindow(AlarmManager.RTC_WAKEUP, windowStartMillis, windowLengthMillis, operation);
+    }
+
+    @Override
+    public void cancel(PendingIntent operation) {
+        alarmManager.cancel(operation);
+    }
+}
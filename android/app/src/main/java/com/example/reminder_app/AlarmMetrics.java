@@ -0,0 +1,284 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Delivery latency and reliability counters for the native alarm path.
+ *
+ * Recording is lock-free: counters and histogram buckets are atomic longs,
+ * and every sample is also written as one fixed 16-byte record into a
+ * memory-mapped ring file. The mapping is flushed by the kernel, so samples
+ * survive the process being killed; on the next start the ring is replayed to
+ * rebuild the aggregates. Aggregates therefore cover the samples since the
+ * last {@link #reset}, bounded by the ring capacity.
+ *
+ * Ring file layout:
+ * <pre>
+ *   header: int magic, int version, int capacity, int reserved
+ *   record: long epochMillis, int metric, int value   (metric 0 = empty)
+ * </pre>
+ */
+public final class AlarmMetrics {
+
+    private static final String TAG = "AlarmMetrics";
+    private static final String FILE_NAME = "alarm_metrics.ring";
+
+    private static final int MAGIC = 0x414c4d52; // "ALMR"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 16;
+    private static final int CAPACITY = 4096;
+
+    // Counters
+    public static final int FIRED = 1;
+    public static final int SUPPRESSED = 2;
+    public static final int DEFERRED = 3;
+    public static final int SILENCED = 4;
+    public static final int BYPASSED = 5;
+    public static final int SNOOZED = 6;
+    public static final int STOPPED = 7;
+
+    // Histograms, in milliseconds
+    /** Actual minus scheduled fire time. */
+    public static final int FIRE_DELAY = 8;
+    /** Broadcast arrival until the receiver finished its work. */
+    public static final int RECEIVER_TIME = 9;
+    /** Broadcast arrival until the alarm notification was posted. */
+    public static final int NOTIFY_TIME = 10;
+    /** Ring request until audio actually started. */
+    public static final int AUDIO_START = 11;
+    /** Broadcast arrival until {@link AlarmActivity} drew its first frame. */
+    public static final int FIRST_FRAME = 12;
+
+    private static final int METRIC_COUNT = 13;
+    private static final int FIRST_HISTOGRAM = FIRE_DELAY;
+
+    private static final String[] NAMES = {
+            null, "fired", "suppressed", "deferred", "silenced", "bypassed", "snoozed", "stopped",
+            "fireDelayMs", "receiverMs", "notifyMs", "audioStartMs",
+            "firstFrameMs"
+    };
+
+    /** Upper bounds (inclusive, ms) of the histogram buckets; one more bucket catches the rest. */
+    static final long[] BUCKET_BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+    private static final int BUCKETS = BUCKET_BOUNDS.length + 1;
+
+    private static final AtomicLongArray counts = new AtomicLongArray(METRIC_COUNT);
+    private static final AtomicLongArray sums = new AtomicLongArray(METRIC_COUNT);
+    private static final AtomicLongArray maxima = new AtomicLongArray(METRIC_COUNT);
+    private static final AtomicLongArray buckets = new AtomicLongArray(METRIC_COUNT * BUCKETS);
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private static volatile MappedByteBuffer ring;
+    private static volatile boolean initialized;
+
+    private AlarmMetrics() {
+    }
+
+    /**
+     * Map the ring file and restore the aggregates it holds. Cheap after the first call.
+     */
+    public static void init(Context context) {
+        if (initialized) {
+            return;
+        }
+        synchronized (AlarmMetrics.class) {
+            if (initialized) {
+                return;
+            }
+            ring = open(new File(context.getFilesDir(), FILE_NAME));
+            initialized = true;
+        }
+    }
+
+    public static void increment(Context context, int counter) {
+        record(context, counter, 1);
+    }
+
+    /**
+     * Add one sample of {@code metric}; counters take 1 as the value.
+     */
+    public static void record(Context context, int metric, long value) {
+        init(context);
+        if (value < 0) {
+            value = 0;
+        }
+        aggregate(metric, value);
+
+        MappedByteBuffer buffer = ring;
+        if (buffer != null) {
+            // Each writer claims its own slot, so absolute puts never overlap. The metric
+            // is cleared first and written last, so a torn record reads as empty.
+            int slot = (int) (sequence.getAndIncrement() % CAPACITY);
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            buffer.putInt(offset + 8, 0);
+            buffer.putLong(offset, System.currentTimeMillis());
+            buffer.putInt(offset + 12, (int) Math.min(value, Integer.MAX_VALUE));
+            buffer.putInt(offset + 8, metric);
+        }
+    }
+
+    /**
+     * Aggregates for Flutter: counters as numbers, histograms as maps with
+     * count, sum, max and per-bucket counts alongside the bucket bounds.
+     */
+    public static HashMap<String, Object> snapshot(Context context) {
+        init(context);
+        return toMap(take(counts, false), take(sums, false), take(maxima, false), take(buckets, false));
+    }
+
+    /**
+     * Like {@link #snapshot} followed by {@link #reset}, but each value is
+     * swapped for zero atomically, so a sample recorded meanwhile lands in
+     * either this snapshot or the next one and is never lost.
+     */
+    public static synchronized HashMap<String, Object> snapshotAndReset(Context context) {
+        init(context);
+        HashMap<String, Object> map = toMap(
+                take(counts, true), take(sums, true), take(maxima, true), take(buckets, true));
+        clearRing();
+        return map;
+    }
+
+    /**
+     * Clear the aggregates and the ring, e.g. after Flutter uploaded a snapshot.
+     */
+    public static synchronized void reset(Context context) {
+        init(context);
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+            sums.set(i, 0);
+            maxima.set(i, 0);
+        }
+        for (int i = 0; i < buckets.length(); i++) {
+            buckets.set(i, 0);
+        }
+        clearRing();
+    }
+
+    private static long[] take(AtomicLongArray values, boolean reset) {
+        long[] taken = new long[values.length()];
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] = reset ? values.getAndSet(i, 0) : values.get(i);
+        }
+        return taken;
+    }
+
+    private static HashMap<String, Object> toMap(long[] counts, long[] sums, long[] maxima, long[] buckets) {
+        HashMap<String, Object> map = new HashMap<>();
+        for (int metric = 1; metric < FIRST_HISTOGRAM; metric++) {
+            map.put(NAMES[metric], counts[metric]);
+        }
+        for (int metric = FIRST_HISTOGRAM; metric < METRIC_COUNT; metric++) {
+            HashMap<String, Object> histogram = new HashMap<>();
+            histogram.put("count", counts[metric]);
+            histogram.put("sum", sums[metric]);
+            histogram.put("max", maxima[metric]);
+            ArrayList<Long> bucketCounts = new ArrayList<>(BUCKETS);
+            for (int b = 0; b < BUCKETS; b++) {
+                bucketCounts.add(buckets[metric * BUCKETS + b]);
+            }
+            histogram.put("buckets", bucketCounts);
+            map.put(NAMES[metric], histogram);
+        }
+        ArrayList<Long> bounds = new ArrayList<>(BUCKET_BOUNDS.length);
+        for (long bound : BUCKET_BOUNDS) {
+            bounds.add(bound);
+        }
+        map.put("bucketBoundsMs", bounds);
+        return map;
+    }
+
+    private static void clearRing() {
+        MappedByteBuffer buffer = ring;
+        if (buffer != null) {
+            for (int offset = HEADER_SIZE; offset < HEADER_SIZE + CAPACITY * RECORD_SIZE; offset += 4) {
+                buffer.putInt(offset, 0);
+            }
+        }
+        sequence.set(0);
+    }
+
+    private static void aggregate(int metric, long value) {
+        counts.incrementAndGet(metric);
+        if (metric < FIRST_HISTOGRAM) {
+            return;
+        }
+        sums.addAndGet(metric, value);
+        long max;
+        while (value > (max = maxima.get(metric))) {
+            if (maxima.compareAndSet(metric, max, value)) {
+                break;
+            }
+        }
+        buckets.incrementAndGet(metric * BUCKETS + bucketFor(value));
+    }
+
+    static int bucketFor(long value) {
+        for (int b = 0; b < BUCKET_BOUNDS.length; b++) {
+            if (value <= BUCKET_BOUNDS[b]) {
+                return b;
+            }
+        }
+        return BUCKET_BOUNDS.length;
+    }
+
+    private static MappedByteBuffer open(File file) {
+        long size = HEADER_SIZE + (long) CAPACITY * RECORD_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            boolean fresh = raf.length() != size;
+            if (fresh) {
+                raf.setLength(0);
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (fresh || buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+                for (int offset = 0; offset < size; offset += 4) {
+                    buffer.putInt(offset, 0);
+                }
+                buffer.putInt(0, MAGIC).putInt(4, FORMAT_VERSION).putInt(8, CAPACITY);
+                return buffer;
+            }
+            replay(buffer);
+            return buffer;
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to map metrics ring, keeping metrics in memory only", e);
+            return null;
+        }
+    }
+
+    /**
+     * Rebuild the aggregates from the ring and continue writing after its newest record.
+     */
+    private static void replay(ByteBuffer buffer) {
+        long newest = Long.MIN_VALUE;
+        int newestSlot = -1;
+        int restored = 0;
+        for (int slot = 0; slot < CAPACITY; slot++) {
+            int offset = HEADER_SIZE + slot * RECORD_SIZE;
+            int metric = buffer.getInt(offset + 8);
+            if (metric <= 0 || metric >= METRIC_COUNT) {
+                continue;
+            }
+            long at = buffer.getLong(offset);
+            aggregate(metric, buffer.getInt(offset + 12));
+            restored++;
+            if (at >= newest) {
+                newest = at;
+                newestSlot = slot;
+            }
+        }
+        sequence.set(newestSlot + 1);
+        AlarmLog.d(TAG, "Restored {} metric samples", restored);
+    }
+}
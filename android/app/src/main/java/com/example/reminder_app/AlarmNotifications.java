@@ -0,0 +1,297 @@
+package com.example.reminder_app;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.media.AudioAttributes;
+import android.net.Uri;
+import android.os.Build;
+import androidx.core.app.NotificationCompat;
+import java.util.List;
+
+/**
+ * Application-wide notification plumbing for alarms.
+ *
+ * Channels are created once per app version (remembered in SharedPreferences)
+ * and the sound URI, AudioAttributes and shared PendingIntents are built once
+ * per process, so an alarm fire only has to fill in its title, body and the
+ * snooze/stop actions addressed to its own reminder id.
+ */
+public final class AlarmNotifications {
+
+    private static final String TAG = "AlarmNotifications";
+    private static final String PREFS_NAME = "alarm_notification_prefs";
+    private static final String KEY_CHANNELS_VERSION = "channels_version";
+
+    public static final String ALARM_CHANNEL_ID = "alarm_channel_v7";
+    public static final String SILENT_CHANNEL_ID = "alarm_silent_channel";
+    public static final String SERVICE_CHANNEL_ID = "alarm_service_channel_2";
+
+    /** Notification id used before alarms got per-reminder notifications. */
+    public static final int NOTIFICATION_ID = 99;
+    public static final int SERVICE_NOTIFICATION_ID = 1;
+
+    private static final long[] VIBRATION_PATTERN = { 0, 500, 1000, 500 };
+
+    // Lines shown in an inbox summary; the rest are counted in its summary text.
+    private static final int MAX_INBOX_LINES = 6;
+
+    public static final AudioAttributes ALARM_AUDIO_ATTRIBUTES = new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_ALARM)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+            .build();
+
+    private static volatile Templates templates;
+    private static volatile long setupMicros = -1;
+
+    /**
+     * Per-process cache of everything that does not depend on the individual alarm.
+     */
+    private static final class Templates {
+        final PendingIntent fullScreen;
+        final Notification service;
+
+        Templates(Context context) {
+            Intent openIntent = new Intent(context, MainActivity.class);
+            openIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+            fullScreen = PendingIntent.getActivity(
+                    context, 0, openIntent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+            service = new NotificationCompat.Builder(context, SERVICE_CHANNEL_ID)
+                    .setContentTitle("Alarm Running")
+                    .setContentText("Your alarm is active")
+                    .setSmallIcon(R.mipmap.ic_launcher)
+                    .setPriority(NotificationCompat.PRIORITY_LOW)
+                    .build();
+        }
+    }
+
+    private AlarmNotifications() {
+    }
+
+    /**
+     * Time spent creating channels and templates the first time this process
+     * needed them, in microseconds; -1 until then. Every later fire skips this cost.
+     */
+    public static long getSetupMicros() {
+        return setupMicros;
+    }
+
+    /**
+     * Full-screen, ringing alarm notification whose actions target {@code entry}'s id.
+     * The snooze action is left out once the reminder has used up its snoozes.
+     * Unless it escalates individually, it is the first of a possible {@link AlarmBurst}.
+     */
+    public static Notification alarm(Context context, AlarmEntry entry, boolean snoozable) {
+        templates(context);
+        NotificationCompat.Builder builder = alarmBuilder(context, entry, snoozable)
+                .setPriority(NotificationCompat.PRIORITY_MAX)
+                .setFullScreenIntent(alarmScreen(context, entry.id), true)
+                .setVibrate(VIBRATION_PATTERN);
+        if (!AlarmBurst.escalatesIndividually(entry)) {
+            builder.setGroup(AlarmBurst.GROUP_KEY);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Silent notification for a reminder that joined a ringing {@link AlarmBurst}:
+     * same actions as {@link #alarm}, but no full-screen intent, sound or vibration.
+     */
+    public static Notification burstMember(Context context, AlarmEntry entry, boolean snoozable) {
+        templates(context);
+        return alarmBuilder(context, entry, snoozable)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .setContentIntent(alarmScreen(context, entry.id))
+                .setGroup(AlarmBurst.GROUP_KEY)
+                .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY)
+                .setSilent(true)
+                .build();
+    }
+
+    /**
+     * Inbox-style summary of a {@link AlarmBurst}, with one action stopping all of it.
+     */
+    public static Notification burstSummary(Context context, List<AlarmEntry> entries) {
+        Templates t = templates(context);
+        String heading = entries.size() + " reminders";
+        return new NotificationCompat.Builder(context, ALARM_CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(heading)
+                .setContentText(entries.get(0).title)
+                .setStyle(inbox(heading, entries))
+                .setNumber(entries.size())
+                .setGroup(AlarmBurst.GROUP_KEY)
+                .setGroupSummary(true)
+                .setSilent(true)
+                .setOnlyAlertOnce(true)
+                .setContentIntent(t.fullScreen)
+                .setAutoCancel(false)
+                .addAction(0, "STOP ALL", action(context, StopReceiver.class, AlarmBurst.SUMMARY_ID))
+                .build();
+    }
+
+    private static NotificationCompat.Builder alarmBuilder(Context context, AlarmEntry entry, boolean snoozable) {
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, ALARM_CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(entry.title)
+                .setContentText(entry.body)
+                .setAutoCancel(false)
+                // Swiping the alarm away stops it like the STOP action and ends its snooze chain.
+                .setDeleteIntent(action(context, StopReceiver.class, entry.id));
+        if (snoozable) {
+            // The payload is looked up by id, see AlarmSessions#payload.
+            builder.addAction(0, "SNOOZE", action(context, SnoozeReceiver.class, entry.id));
+        }
+        return builder.addAction(0, "STOP", action(context, StopReceiver.class, entry.id));
+    }
+
+    /**
+     * Opens {@link AlarmActivity} for reminder {@code id}: a plain native
+     * activity, so the ringing screen does not wait for a Flutter engine.
+     */
+    private static PendingIntent alarmScreen(Context context, int id) {
+        Intent alarmIntent = new Intent(context, AlarmActivity.class);
+        alarmIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_NO_USER_ACTION);
+        alarmIntent.putExtra("id", id);
+        return PendingIntent.getActivity(
+                context, id, alarmIntent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    /**
+     * Low-importance notification without sound or vibration, for the quiet hours "silent" policy.
+     */
+    public static Notification silent(Context context, String title, String body) {
+        Templates t = templates(context);
+        return new NotificationCompat.Builder(context, SILENT_CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(title)
+                .setContentText(body)
+                .setPriority(NotificationCompat.PRIORITY_LOW)
+                .setSilent(true)
+                .setContentIntent(t.fullScreen)
+                .setAutoCancel(true)
+                .build();
+    }
+
+    /**
+     * One inbox-style notification summarising several reminders, stopped as
+     * session {@link AlarmSessions#GROUP_SESSION_ID}.
+     */
+    public static Notification group(Context context, String heading, List<AlarmEntry> entries) {
+        Templates t = templates(context);
+        return new NotificationCompat.Builder(context, ALARM_CHANNEL_ID)
+                .setSmallIcon(R.mipmap.ic_launcher)
+                .setContentTitle(heading)
+                .setContentText(entries.get(0).title)
+                .setStyle(inbox(heading, entries))
+                .setNumber(entries.size())
+                .setPriority(NotificationCompat.PRIORITY_MAX)
+                .setContentIntent(t.fullScreen)
+                .setAutoCancel(false)
+                .setVibrate(VIBRATION_PATTERN)
+                .addAction(0, "STOP", action(context, StopReceiver.class, AlarmSessions.GROUP_SESSION_ID))
+                .build();
+    }
+
+    /**
+     * Opens the app; also shown by the system for alarm-clock reminders.
+     */
+    static PendingIntent openApp(Context context) {
+        return templates(context).fullScreen;
+    }
+
+    /**
+     * Ongoing notification for {@link AlarmService} while it is in the foreground.
+     */
+    public static Notification service(Context context) {
+        return templates(context).service;
+    }
+
+    private static NotificationCompat.InboxStyle inbox(String heading, List<AlarmEntry> entries) {
+        NotificationCompat.InboxStyle style = new NotificationCompat.InboxStyle()
+                .setBigContentTitle(heading);
+        int lines = Math.min(entries.size(), MAX_INBOX_LINES);
+        for (int i = 0; i < lines; i++) {
+            AlarmEntry entry = entries.get(i);
+            style.addLine(entry.body != null ? entry.title + " — " + entry.body : entry.title);
+        }
+        if (entries.size() > lines) {
+            style.setSummaryText("+" + (entries.size() - lines) + " more");
+        }
+        return style;
+    }
+
+    private static PendingIntent action(Context context, Class<?> receiver, int id) {
+        Intent intent = new Intent(context, receiver);
+        intent.putExtra("id", id);
+        return PendingIntent.getBroadcast(
+                context, id, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private static Templates templates(Context context) {
+        Templates t = templates;
+        if (t == null) {
+            synchronized (AlarmNotifications.class) {
+                t = templates;
+                if (t == null) {
+                    long start = System.nanoTime();
+                    Context appContext = context.getApplicationContext();
+                    ensureChannels(appContext);
+                    t = new Templates(appContext);
+                    templates = t;
+                    setupMicros = (System.nanoTime() - start) / 1000;
+                    AlarmLog.d(TAG, "Notification channels and templates ready in {}us", setupMicros);
+                }
+            }
+        }
+        return t;
+    }
+
+    private static void ensureChannels(Context context) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) {
+            return;
+        }
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getInt(KEY_CHANNELS_VERSION, -1) == BuildConfig.VERSION_CODE) {
+            return;
+        }
+
+        NotificationManager manager = context.getSystemService(NotificationManager.class);
+
+        Uri alarmSound = Uri.parse("android.resource://" + context.getPackageName() + "/raw/second_alarm");
+        NotificationChannel alarm = new NotificationChannel(
+                ALARM_CHANNEL_ID,
+                "Alarm Notifications",
+                NotificationManager.IMPORTANCE_HIGH);
+        alarm.setDescription("Alarm notifications");
+        alarm.enableVibration(true);
+        alarm.setSound(alarmSound, ALARM_AUDIO_ATTRIBUTES);
+        manager.createNotificationChannel(alarm);
+
+        NotificationChannel silent = new NotificationChannel(
+                SILENT_CHANNEL_ID,
+                "Quiet Hours Reminders",
+                NotificationManager.IMPORTANCE_LOW);
+        silent.setDescription("Reminders delivered silently during quiet hours");
+        silent.setSound(null, null);
+        silent.enableVibration(false);
+        manager.createNotificationChannel(silent);
+
+        NotificationChannel service = new NotificationChannel(
+                SERVICE_CHANNEL_ID,
+                "Alarm Service",
+                NotificationManager.IMPORTANCE_LOW);
+        service.setDescription("Alarm is running");
+        manager.createNotificationChannel(service);
+
+        prefs.edit().putInt(KEY_CHANNELS_VERSION, BuildConfig.VERSION_CODE).apply();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.reminder_app;
+
+import java.util.List;
+
+/**
+ * Posts and removes the alarm notifications. Callers hand over reminders
+ * rather than built notifications, so a fake can record what would have been
+ * shown. {@link SystemNotifier} is the on-device implementation.
+ */
+public interface AlarmNotifier {
+
+    /** Ringing notification with full-screen intent, under the reminder's id. */
+    void alarm(AlarmEntry entry, boolean snoozable);
+
+    /** Silent notification of a reminder that joined the ringing burst. */
+    void burstMember(AlarmEntry entry, boolean snoozable);
+
+    /** Group summary of the current burst, under {@link AlarmBurst#SUMMARY_ID}. */
+    void burstSummary(List<AlarmEntry> entries);
+
+    /** Notification without sound, vibration or full-screen intent. */
+    void silent(AlarmEntry entry);
+
+    /** One inbox-style notification listing {@code entries}. */
+    void group(int id, String heading, List<AlarmEntry> entries);
+
+    void cancel(int id);
+}
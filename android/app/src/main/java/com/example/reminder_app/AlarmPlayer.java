@@ -0,0 +1,207 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.media.MediaPlayer;
+import android.media.RingtoneManager;
+import android.net.Uri;
+import android.os.SystemClock;
+import java.io.IOException;
+
+/**
+ * Process-wide alarm sound engine.
+ *
+ * The sound resource is resolved once, a single looping MediaPlayer is
+ * prepared asynchronously and then kept around, and overlapping alarms share
+ * it through a reference count: the first {@link #acquire} starts playback,
+ * the last {@link #release} pauses it, ready for the next alarm.
+ *
+ * Thread-safe: alarm sessions acquire and release it from the receiver worker.
+ * The player is created from whichever thread first needs it; MediaPlayer
+ * delivers its callbacks on the main looper when that thread has none.
+ */
+public final class AlarmPlayer implements AlarmSound {
+
+    private static final String TAG = "AlarmPlayer";
+    private static final String SOUND_NAME = "second_alarm";
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_PREPARING = 1;
+    private static final int STATE_PREPARED = 2;
+
+    private static AlarmPlayer instance;
+
+    private final Context context;
+    private Uri soundUri;
+    private boolean usingFallback;
+    private MediaPlayer player;
+    private int state = STATE_IDLE;
+    private int refCount;
+    private long requestedAtMs = -1;
+    private volatile long lastStartLatencyMs = -1;
+
+    public static synchronized AlarmPlayer get(Context context) {
+        if (instance == null) {
+            instance = new AlarmPlayer(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private AlarmPlayer(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Time from the first {@link #acquire} of a ringing period until audio
+     * actually started, in milliseconds; -1 until the first alarm played.
+     */
+    public long getLastStartLatencyMs() {
+        return lastStartLatencyMs;
+    }
+
+    /**
+     * Resolve the sound and start preparing the player without playing it,
+     * so the next {@link #acquire} only has to call start().
+     */
+    @Override
+    public synchronized void prewarm() {
+        if (player == null) {
+            preparePlayer();
+        }
+    }
+
+    /**
+     * Register one more ringing alarm; starts playback if this is the first.
+     */
+    @Override
+    public synchronized void acquire() {
+        refCount++;
+        if (refCount > 1) {
+            return;
+        }
+        requestedAtMs = SystemClock.elapsedRealtime();
+        if (player == null) {
+            preparePlayer();
+        } else if (state == STATE_PREPARED) {
+            startPlayback();
+        }
+        // STATE_PREPARING: onPrepared starts playback since refCount > 0.
+    }
+
+    /**
+     * One ringing alarm ended; pauses playback once none are left.
+     */
+    @Override
+    public synchronized void release() {
+        if (refCount == 0) {
+            return;
+        }
+        refCount--;
+        if (refCount == 0) {
+            pausePlayback();
+        }
+    }
+
+    /**
+     * Silence every alarm at once, keeping the prepared player for reuse.
+     */
+    @Override
+    public synchronized void stopAll() {
+        refCount = 0;
+        pausePlayback();
+    }
+
+    /**
+     * Free the underlying MediaPlayer; the next acquire prepares a new one.
+     */
+    public synchronized void shutdown() {
+        refCount = 0;
+        releasePlayer();
+    }
+
+    private void preparePlayer() {
+        if (soundUri == null) {
+            // Resolved once per process: getIdentifier is a reflective string lookup.
+            int resId = context.getResources().getIdentifier(SOUND_NAME, "raw", context.getPackageName());
+            if (resId != 0) {
+                soundUri = Uri.parse("android.resource://" + context.getPackageName() + "/" + resId);
+            } else {
+                AlarmLog.e(TAG, "Sound not found! Using default.");
+                soundUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM);
+                usingFallback = true;
+            }
+        }
+
+        MediaPlayer mp = new MediaPlayer();
+        mp.setAudioAttributes(AlarmNotifications.ALARM_AUDIO_ATTRIBUTES);
+        mp.setLooping(true);
+        mp.setOnPreparedListener(this::onPrepared);
+        mp.setOnErrorListener(this::onError);
+        try {
+            mp.setDataSource(context, soundUri);
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to open alarm sound {}", soundUri.toString(), e);
+            mp.release();
+            fallBackToDefault();
+            return;
+        }
+        player = mp;
+        state = STATE_PREPARING;
+        mp.prepareAsync();
+    }
+
+    private synchronized void onPrepared(MediaPlayer mp) {
+        if (mp != player) {
+            return;
+        }
+        state = STATE_PREPARED;
+        if (refCount > 0) {
+            startPlayback();
+        }
+    }
+
+    private synchronized boolean onError(MediaPlayer mp, int what, int extra) {
+        AlarmLog.e(TAG, "MediaPlayer error {}/{}", what, extra);
+        if (mp == player) {
+            releasePlayer();
+            fallBackToDefault();
+        }
+        return true;
+    }
+
+    private void fallBackToDefault() {
+        if (usingFallback) {
+            return;
+        }
+        usingFallback = true;
+        soundUri = RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM);
+        if (refCount > 0) {
+            preparePlayer();
+        }
+    }
+
+    private void startPlayback() {
+        player.start();
+        if (requestedAtMs >= 0) {
+            lastStartLatencyMs = SystemClock.elapsedRealtime() - requestedAtMs;
+            requestedAtMs = -1;
+            AlarmLog.d(TAG, "Alarm audio started {}ms after request", lastStartLatencyMs);
+            AlarmMetrics.record(context, AlarmMetrics.AUDIO_START, lastStartLatencyMs);
+        }
+    }
+
+    private void pausePlayback() {
+        requestedAtMs = -1;
+        if (player != null && state == STATE_PREPARED && player.isPlaying()) {
+            player.pause();
+            player.seekTo(0);
+        }
+    }
+
+    private void releasePlayer() {
+        if (player != null) {
+            player.release();
+            player = null;
+        }
+        state = STATE_IDLE;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.reminder_app;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Time-ordered index of pending reminders used by the next-alarm-only
+ * scheduling mode: only {@link #peek()} is ever registered with AlarmManager.
+ *
+ * Entries are ordered by trigger time, ties broken by id, so reminders due in
+ * the same millisecond are dispatched in a stable order. Adding an entry with an
+ * existing id replaces it; all operations are O(log n). Not thread-safe.
+ */
+public final class AlarmQueue {
+
+    private static final Comparator<AlarmEntry> ORDER = (a, b) -> {
+        int byTime = Long.compare(a.timeMillis, b.timeMillis);
+        return byTime != 0 ? byTime : Integer.compare(a.id, b.id);
+    };
+
+    private final TreeSet<AlarmEntry> byTime = new TreeSet<>(ORDER);
+    private final HashMap<Integer, AlarmEntry> byId = new HashMap<>();
+
+    public void add(AlarmEntry entry) {
+        AlarmEntry previous = byId.put(entry.id, entry);
+        if (previous != null) {
+            byTime.remove(previous);
+        }
+        byTime.add(entry);
+    }
+
+    public void addAll(Iterable<AlarmEntry> entries) {
+        for (AlarmEntry entry : entries) {
+            add(entry);
+        }
+    }
+
+    /**
+     * @return the removed entry, or null if {@code id} was not queued
+     */
+    public AlarmEntry remove(int id) {
+        AlarmEntry entry = byId.remove(id);
+        if (entry != null) {
+            byTime.remove(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Earliest pending entry, or null if the queue is empty.
+     */
+    public AlarmEntry peek() {
+        return byTime.isEmpty() ? null : byTime.first();
+    }
+
+    /**
+     * Remove and return, in trigger order, every entry due at or before {@code nowMillis}.
+     */
+    public List<AlarmEntry> pollDue(long nowMillis) {
+        List<AlarmEntry> due = new ArrayList<>();
+        while (!byTime.isEmpty() && byTime.first().timeMillis <= nowMillis) {
+            AlarmEntry entry = byTime.pollFirst();
+            byId.remove(entry.id);
+            due.add(entry);
+        }
+        return due;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public void clear() {
+        byTime.clear();
+        byId.clear();
+    }
+}
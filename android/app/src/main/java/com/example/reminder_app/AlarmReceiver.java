@@ -3,119 +3,221 @@ package com.example.reminder_app;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
-import android.os.Build;
-import androidx.core.app.NotificationCompat;
-import androidx.core.app.NotificationManagerCompat;
-import android.media.AudioAttributes;
-import android.net.Uri;
-import android.util.Log;
-
+import android.os.SystemClock;
+import android.os.Trace;
+import androidx.annotation.VisibleForTesting;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers the app's own alarm wakeups: reminders, the next-alarm-only
+ * wakeup and the end of quiet hours. Not exported, so only PendingIntents
+ * created by this app reach it; system broadcasts go to
+ * {@link SystemEventReceiver}.
+ */
 public class AlarmReceiver extends BroadcastReceiver {
 
-        private static final String CHANNEL_ID = "alarm_channel_v7";
         private static final String TAG = "AlarmReceiver";
 
+        // goAsync() gives us ~10s before the system considers the broadcast stuck.
+        private static final long BUDGET_MS = 2000;
+
+        // Small dedicated worker: one thread normally, a second during bursts. If even
+        // that backs up, the work runs on the caller so no alarm is ever dropped.
+        // Shared with SystemEventReceiver.
+        static final ThreadPoolExecutor WORKER = new ThreadPoolExecutor(
+                        1, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(64),
+                        r -> new Thread(r, "AlarmReceiverWorker"),
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+
+        static {
+                WORKER.allowCoreThreadTimeOut(true);
+        }
+
+        // Gap between the broadcast arriving and the last alarm notification being posted.
+        private static volatile long lastFireToPostMs = -1;
+
+        private long receivedAtMs;
+        private long phaseStartNanos;
+
+        static long getLastFireToPostMs() {
+                return lastFireToPostMs;
+        }
+
         @Override
         public void onReceive(Context context, Intent intent) {
-                Log.d(TAG, "onReceive triggered");
+                receivedAtMs = SystemClock.elapsedRealtime();
+                Context appContext = context.getApplicationContext();
+                PendingResult pendingResult = goAsync();
+                WORKER.execute(() -> {
+                        try {
+                                // Normally done by ReminderApplication already; waits for it otherwise.
+                                AlarmLog.init(appContext);
+                                handle(appContext, intent);
+                        } finally {
+                                long elapsed = SystemClock.elapsedRealtime() - receivedAtMs;
+                                AlarmMetrics.record(appContext, AlarmMetrics.RECEIVER_TIME, elapsed);
+                                if (elapsed > BUDGET_MS) {
+                                        AlarmLog.w(TAG, "Alarm handling took {}ms, over the {}ms budget", elapsed, BUDGET_MS);
+                                }
+                                pendingResult.finish();
+                        }
+                });
+        }
 
-                String title = intent.getStringExtra("title");
-                String body = intent.getStringExtra("body");
-                String taskType = intent.getStringExtra("taskType");
-                if (taskType == null)
-                        taskType = "standard";
+        @VisibleForTesting
+        void handle(Context context, Intent intent) {
+                AlarmLog.d(TAG, "onReceive triggered");
+
+                if (DeferredAlarms.ACTION_FLUSH_DEFERRED.equals(intent.getAction())) {
+                        // Quiet hours ended: release everything held back as one group.
+                        List<AlarmEntry> deferred = DeferredAlarms.takeAll(context);
+                        if (deferred.size() == 1) {
+                                deliver(context, deferred.get(0));
+                        } else if (!deferred.isEmpty()) {
+                                deliverGroup(context, deferred);
+                        }
+                        return;
+                }
 
-                Log.d(TAG, "Task type: " + taskType);
+                if (AlarmScheduler.ACTION_NEXT_ALARM.equals(intent.getAction())) {
+                        // The shared wakeup covers every queued reminder that is due now.
+                        for (AlarmEntry entry : AlarmScheduler.takeDueAlarms(context)) {
+                                recordFireDelay(context, entry);
+                                deliver(context, entry);
+                        }
+                        return;
+                }
+
+                int id = intent.getIntExtra("id", -1);
+                AlarmEntry fired = null;
+                if (id != -1) {
+                        // Recurring reminders are moved on to their next occurrence here.
+                        fired = AlarmScheduler.onAlarmFired(context, id);
+                        recordFireDelay(context, fired);
+                }
+
+                if (fired == null) {
+                        if (!intent.hasExtra("title")) {
+                                // Cancelled or already delivered; nothing left to show.
+                                AlarmLog.w(TAG, "Dropping alarm {}, no stored reminder", id);
+                                return;
+                        }
+                        // Registered by an older version, which put the payload into the intent
+                        fired = new AlarmEntry(id, AlarmEnvironment.now(),
+                                        intent.getStringExtra("title"),
+                                        intent.getStringExtra("body"),
+                                        intent.getStringExtra("taskType"));
+                }
+                deliver(context, fired.withTime(AlarmEnvironment.now()));
+        }
 
-                // Check quiet hours - if active and not an exception, suppress completely
+        private void deliver(Context context, AlarmEntry entry) {
+                int id = entry.id;
+                String taskType = entry.taskType;
+                AlarmLog.d(TAG, "Alarm {} fired, task type: {}", id, taskType);
+                AlarmMetrics.increment(context, AlarmMetrics.FIRED);
+
+                // Check quiet hours - the per-task-type policy decides what happens inside them
+                beginPhase("AlarmReceiver.quietHours");
+                int policy = QuietHoursHelper.resolvePolicy(context, taskType);
+                long policyMicros = endPhase();
+                if (policy == QuietSchedule.POLICY_DEFER) {
+                        if (DeferredAlarms.defer(context, entry)) {
+                                AlarmMetrics.increment(context, AlarmMetrics.DEFERRED);
+                                AlarmLog.d(TAG, "Quiet hours active, deferring alarm {} for task type: {}", id, taskType);
+                                return;
+                        }
+                        policy = QuietSchedule.POLICY_SUPPRESS;
+                }
+                if (policy == QuietSchedule.POLICY_SUPPRESS) {
+                        AlarmLog.d(TAG, "Quiet hours active, suppressing alarm {} for task type: {}", id, taskType);
+                        AlarmMetrics.increment(context, AlarmMetrics.SUPPRESSED);
+                        return; // Complete silence - no alarm, no notification
+                }
+                if (policy == QuietSchedule.POLICY_SILENT) {
+                        AlarmLog.d(TAG, "Quiet hours active, posting silent notification {} for task type: {}", id, taskType);
+                        AlarmMetrics.increment(context, AlarmMetrics.SILENCED);
+                        AlarmEnvironment.notifier(context).silent(entry);
+                        return;
+                }
                 if (QuietHoursHelper.isQuietHoursActive(context)) {
-                        if (!QuietHoursHelper.shouldBypassQuietHours(context, taskType)) {
-                                Log.d(TAG, "Quiet hours active, suppressing alarm for task type: " + taskType);
-                                return; // Complete silence - no alarm, no notification
+                        // Delivered inside quiet hours by an exception or a "deliver" rule
+                        AlarmMetrics.increment(context, AlarmMetrics.BYPASSED);
+                }
+
+                // Reminders firing right after another one share its ring and screen
+                if (!AlarmBurst.escalatesIndividually(entry)) {
+                        int burstSize = AlarmBurst.join(context, entry, AlarmEnvironment.now());
+                        if (burstSize > 0) {
+                                deliverBurstMember(context, entry, burstSize);
+                                return;
                         }
-                        Log.d(TAG, "Quiet hours active but task bypasses (safetyCritical exception)");
                 }
 
-                // Start the alarm service
-                Intent serviceIntent = new Intent(context, AlarmService.class);
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                        context.startService(serviceIntent);
-                        Log.e("AlarmReceiver", "Foreground service started");
-                } else {
-                        context.startService(serviceIntent);
-                        Log.e("AlarmReceiver", "Service started");
+                // Open a ringing session: shared alarm sound plus the foreground service
+                beginPhase("AlarmReceiver.startSession");
+                AlarmSessions.start(context, entry, receivedAtMs);
+                long serviceMicros = endPhase();
+
+                beginPhase("AlarmReceiver.notify");
+                AlarmEnvironment.notifier(context).alarm(entry, AlarmSnooze.canSnooze(context, id));
+                long notifyMicros = endPhase();
+
+                lastFireToPostMs = SystemClock.elapsedRealtime() - receivedAtMs;
+                AlarmMetrics.record(context, AlarmMetrics.NOTIFY_TIME, lastFireToPostMs);
+                AlarmLog.d(TAG, "Alarm {} posted {}ms after fire", id, lastFireToPostMs);
+                AlarmLog.d(TAG, "Phase timings (us): policy={} session={} notify={}",
+                                policyMicros, serviceMicros, notifyMicros);
+                AlarmEvents.post(context, AlarmEvents.FIRED, id);
+        }
+
+        private void beginPhase(String name) {
+                Trace.beginSection(name);
+                phaseStartNanos = System.nanoTime();
+        }
+
+        private long endPhase() {
+                Trace.endSection();
+                return (System.nanoTime() - phaseStartNanos) / 1000;
+        }
+
+        private static void recordFireDelay(Context context, AlarmEntry fired) {
+                if (fired != null) {
+                        AlarmMetrics.record(context, AlarmMetrics.FIRE_DELAY, AlarmEnvironment.now() - fired.timeMillis);
                 }
+        }
 
-                // Create notification channel (Oreo+)
-                // if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                // NotificationChannel channel = new NotificationChannel(
-                // CHANNEL_ID,
-                // "Alarm Notifications",
-                // NotificationManager.IMPORTANCE_HIGH
-                // );
-                // channel.setDescription("Alarm notifications");
-                // channel.enableVibration(true);
-                // // Don't set a sound here to avoid overriding your MediaPlayer
-                // NotificationManager manager =
-                // context.getSystemService(NotificationManager.class);
-                // manager.createNotificationChannel(channel);
-                // }
-
-                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-                        Uri alarmSound = Uri
-                                        .parse("android.resource://" + context.getPackageName() + "/raw/second_alarm");
-
-                        NotificationChannel channel = new NotificationChannel(
-                                        CHANNEL_ID,
-                                        "Alarm Notifications",
-                                        NotificationManager.IMPORTANCE_HIGH);
-                        channel.setDescription("Alarm notifications");
-                        channel.enableVibration(true);
-                        channel.setSound(alarmSound, new AudioAttributes.Builder()
-                                        .setUsage(AudioAttributes.USAGE_ALARM)
-                                        .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                                        .build());
-
-                        NotificationManager manager = context.getSystemService(NotificationManager.class);
-                        manager.createNotificationChannel(channel);
+        /**
+         * Add a reminder to the burst that is already ringing: it holds a session
+         * on the shared ring and gets a silent grouped notification, while the
+         * burst is small enough to show one per reminder.
+         */
+        private void deliverBurstMember(Context context, AlarmEntry entry, int burstSize) {
+                AlarmSessions.start(context, entry, receivedAtMs);
+                if (burstSize <= AlarmBurst.MAX_MEMBER_NOTIFICATIONS) {
+                        AlarmEnvironment.notifier(context).burstMember(entry, AlarmSnooze.canSnooze(context, entry.id));
                 }
+                AlarmLog.d(TAG, "Alarm {} delivered as member {} of a burst", entry.id, burstSize);
+                AlarmEvents.post(context, AlarmEvents.FIRED, entry.id);
+        }
+
+        /**
+         * Ring once and post a single inbox-style notification for reminders
+         * that were held back during quiet hours.
+         */
+        private void deliverGroup(Context context, List<AlarmEntry> entries) {
+                AlarmLog.d(TAG, "Delivering {} deferred alarms as one group", entries.size());
 
-                // App open intent
-                Intent openIntent = new Intent(context, MainActivity.class);
-                openIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
-                PendingIntent fullScreenPendingIntent = PendingIntent.getActivity(
-                                context, 0, openIntent,
-                                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-                // Snooze action (example)
-                Intent snoozeIntent = new Intent(context, SnoozeReceiver.class);
-                PendingIntent snoozePending = PendingIntent.getBroadcast(
-                                context, 1, snoozeIntent,
-                                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-                // Stop action
-                Intent stopIntent = new Intent(context, StopReceiver.class);
-                PendingIntent stopPending = PendingIntent.getBroadcast(
-                                context, 2, stopIntent,
-                                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
-
-                // Build notification
-                NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
-                                .setSmallIcon(R.mipmap.ic_launcher)
-                                .setContentTitle(title)
-                                .setContentText(body)
-                                // .setCategory(NotificationCompat.CATEGORY_ALARM)
-                                .setPriority(NotificationCompat.PRIORITY_MAX)
-                                .setFullScreenIntent(fullScreenPendingIntent, true)
-                                .setAutoCancel(false)
-                                .setVibrate(new long[] { 0, 500, 1000, 500 })
-                                .addAction(0, "SNOOZE", snoozePending)
-                                .addAction(0, "STOP", stopPending);
-
-                NotificationManagerCompat manager = NotificationManagerCompat.from(context);
-                manager.notify(99, builder.build());
+                String heading = entries.size() + " reminders from quiet hours";
+                AlarmSessions.start(context, new AlarmEntry(AlarmSessions.GROUP_SESSION_ID,
+                                AlarmEnvironment.now(), heading, null, "standard"));
+
+                AlarmEnvironment.notifier(context).group(AlarmSessions.GROUP_SESSION_ID, heading, entries);
+                for (AlarmEntry entry : entries) {
+                        AlarmEvents.post(context, AlarmEvents.FIRED, entry.id);
+                }
         }
 }
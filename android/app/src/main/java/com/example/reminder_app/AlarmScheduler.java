@@ -0,0 +1,560 @@
+package com.example.reminder_app;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Registers reminders with AlarmManager and writes them through to
+ * {@link AlarmStore}, so a full sync from Flutter only touches the alarms that
+ * actually changed and a reboot can restore everything that was pending.
+ *
+ * Standard reminders are not registered one by one: they are kept in an
+ * {@link AlarmQueue} behind a single exact wakeup for the earliest one, and
+ * that wakeup also delivers the standard reminders due within
+ * {@link DeliveryStrategy#COALESCE_MS} after it, so a cluster costs one
+ * wakeup. In next-alarm-only mode every reminder goes through that queue,
+ * which stays within OEM alarm caps for very large task lists.
+ *
+ * Recurring reminders ({@link AlarmEntry#recurrence}) stay in the store: when
+ * one fires it is replaced by its next occurrence, computed natively, so the
+ * Flutter side never has to reschedule them.
+ */
+public class AlarmScheduler {
+
+    private static final String TAG = "AlarmScheduler";
+    private static final String PREFS_NAME = "alarm_scheduler_prefs";
+    private static final String KEY_NEXT_ALARM_ONLY = "next_alarm_only";
+
+    public static final String ACTION_NEXT_ALARM = "com.example.reminder_app.NEXT_ALARM";
+
+    // Alarms may be delivered a little early when the device batches wakeups.
+    private static final long DUE_TOLERANCE_MS = 1000;
+
+    // Rehydration after boot runs inside a broadcast; stay well inside its ~10s limit.
+    private static final long REHYDRATE_BUDGET_MS = 5000;
+
+    /**
+     * Outcome of {@link #applyBatch}.
+     */
+    public static final class BatchResult {
+        public int scheduled;
+        public int cancelled;
+        public int unchanged;
+        public int skipped;
+        public long elapsedMicros;
+
+        public HashMap<String, Object> toMap() {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("scheduled", scheduled);
+            map.put("cancelled", cancelled);
+            map.put("unchanged", unchanged);
+            map.put("skipped", skipped);
+            map.put("elapsedMicros", elapsedMicros);
+            return map;
+        }
+    }
+
+    // The reminders behind the shared wakeup, ordered by time; built lazily from AlarmStore.
+    private static AlarmQueue queue;
+
+    public static boolean isNextAlarmOnly(Context context) {
+        return prefs(context).getBoolean(KEY_NEXT_ALARM_ONLY, false);
+    }
+
+    /**
+     * Switch between registering every reminder and arming only the earliest
+     * one, moving the currently pending reminders over to the new mode.
+     */
+    public static synchronized void setNextAlarmOnly(Context context, boolean enabled) {
+        if (enabled == isNextAlarmOnly(context)) {
+            return;
+        }
+        prefs(context).edit().putBoolean(KEY_NEXT_ALARM_ONLY, enabled).apply();
+
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        long now = AlarmEnvironment.now();
+        List<AlarmEntry> pending = AlarmEnvironment.store(context).all();
+        queue = null;
+        for (AlarmEntry entry : pending) {
+            if (queued(false, entry)) {
+                continue; // behind the shared wakeup in both modes
+            }
+            if (enabled) {
+                if (entry.timeMillis > now) {
+                    cancel(context, backend, entry.id);
+                }
+            } else {
+                register(context, backend, entry, Math.max(entry.timeMillis, now));
+            }
+        }
+        armNext(context, backend);
+        AlarmLog.d(TAG, "Next-alarm-only mode set to {} for {} alarms", enabled ? 1 : 0, pending.size());
+    }
+
+    /**
+     * Register a single reminder, replacing any alarm with the same id.
+     *
+     * @throws IllegalArgumentException if the entry has a malformed recurrence rule
+     */
+    public static synchronized void scheduleExactAlarm(Context context, AlarmEntry entry) {
+        long now = AlarmEnvironment.now();
+        entry = resolveRecurrence(entry, now);
+        if (entry == null) {
+            return; // recurring series already over
+        }
+        AlarmSnooze.clearStale(context, entry);
+        ReminderStore store = AlarmEnvironment.store(context);
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        boolean nextAlarmOnly = isNextAlarmOnly(context);
+        AlarmEntry previous = store.get(entry.id);
+        store.put(entry);
+        if (queued(nextAlarmOnly, entry)) {
+            if (previous != null && !queued(nextAlarmOnly, previous)) {
+                cancel(context, backend, entry.id);
+            }
+            queue(context).add(entry);
+            armNext(context, backend);
+        } else {
+            if (previous != null && queued(nextAlarmOnly, previous)) {
+                queue(context).remove(entry.id);
+                armNext(context, backend);
+            }
+            register(context, backend, entry);
+        }
+    }
+
+    /**
+     * Forget a reminder that has just been delivered, or move a recurring one
+     * on to its next occurrence.
+     *
+     * @return the reminder as it was scheduled, or null if it was not in the store
+     */
+    public static synchronized AlarmEntry onAlarmFired(Context context, int id) {
+        ReminderStore store = AlarmEnvironment.store(context);
+        AlarmEntry fired = store.get(id);
+        if (fired != null) {
+            AlarmSnooze.clearStale(context, fired);
+        }
+        AlarmEntry next = nextOccurrence(fired, AlarmEnvironment.now());
+        if (next == null) {
+            store.remove(id);
+            if (queue != null) {
+                queue.remove(id);
+            }
+            return fired;
+        }
+
+        store.put(next);
+        if (queued(isNextAlarmOnly(context), next)) {
+            queue(context).add(next);
+            armNext(context, AlarmEnvironment.backend(context));
+        } else {
+            register(context, AlarmEnvironment.backend(context), next);
+        }
+        AlarmLog.d(TAG, "Recurring alarm {} next due at {}", id, next.timeMillis);
+        return fired;
+    }
+
+    /**
+     * Move recurring reminders to the occurrences the wall clock now gives
+     * them, after the time zone or the clock changed. Their DTSTART is local
+     * time, so in a new zone the same occurrence is a different instant, and
+     * after the clock was set back the stored one may skip occurrences.
+     * Snoozed reminders and occurrences that are already due are left alone.
+     *
+     * @return number of reminders moved or ended
+     */
+    public static synchronized int rescheduleRecurring(Context context) {
+        long now = AlarmEnvironment.now();
+        ZoneId zone = ZoneId.systemDefault();
+        ReminderStore store = AlarmEnvironment.store(context);
+        List<AlarmEntry> moved = new ArrayList<>();
+        List<AlarmEntry> ended = new ArrayList<>();
+        for (AlarmEntry entry : store.all()) {
+            if (entry.recurrence == null || entry.timeMillis <= now
+                    || AlarmSnooze.isPending(context, entry.id, now)) {
+                continue;
+            }
+            long next;
+            try {
+                next = Recurrence.parse(entry.recurrence, entry.timeMillis, zone).nextAfter(now, zone);
+            } catch (IllegalArgumentException e) {
+                AlarmLog.e(TAG, "Keeping alarm {} with an unreadable recurrence", entry.id, e);
+                continue;
+            }
+            if (next < 0) {
+                ended.add(entry);
+            } else if (next != entry.timeMillis) {
+                moved.add(entry.withTime(next));
+            }
+        }
+        if (moved.isEmpty() && ended.isEmpty()) {
+            return 0;
+        }
+
+        List<Integer> endedIds = new ArrayList<>(ended.size());
+        for (AlarmEntry entry : ended) {
+            endedIds.add(entry.id);
+        }
+        store.update(moved, endedIds);
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        boolean nextAlarmOnly = isNextAlarmOnly(context);
+        for (AlarmEntry entry : ended) {
+            if (!queued(nextAlarmOnly, entry)) {
+                cancel(context, backend, entry.id);
+            }
+        }
+        for (AlarmEntry entry : moved) {
+            if (!queued(nextAlarmOnly, entry)) {
+                register(context, backend, entry);
+            }
+        }
+        queue = null;
+        armNext(context, backend);
+        AlarmLog.d(TAG, "Clock change moved {} recurring alarms and ended {}", moved.size(), ended.size());
+        return moved.size() + ended.size();
+    }
+
+    /**
+     * Called when the shared wakeup fires: removes every reminder that is now
+     * due from the store, together with the standard reminders due within
+     * {@link DeliveryStrategy#COALESCE_MS}, arms the wakeup for the one after,
+     * and returns the reminders for delivery in trigger order.
+     */
+    public static synchronized List<AlarmEntry> takeDueAlarms(Context context) {
+        long now = AlarmEnvironment.now();
+        AlarmQueue q = queue(context);
+        List<AlarmEntry> due = q.pollDue(now + DUE_TOLERANCE_MS);
+        if (!due.isEmpty()) {
+            // Standard reminders right behind ride along instead of waking the device again.
+            AlarmEntry head;
+            while ((head = q.peek()) != null
+                    && head.timeMillis <= now + DeliveryStrategy.COALESCE_MS
+                    && DeliveryStrategy.sharesWakeup(head)
+                    && !AlarmSnooze.isPending(context, head.id, now)) {
+                due.add(q.remove(head.id));
+            }
+        }
+        List<Integer> ids = new ArrayList<>(due.size());
+        List<AlarmEntry> nextOccurrences = new ArrayList<>();
+        for (AlarmEntry entry : due) {
+            AlarmSnooze.clearStale(context, entry);
+            AlarmEntry next = nextOccurrence(entry, now);
+            if (next != null) {
+                nextOccurrences.add(next);
+            } else {
+                ids.add(entry.id);
+            }
+        }
+        AlarmEnvironment.store(context).update(nextOccurrences, ids);
+        q.addAll(nextOccurrences);
+        armNext(context, AlarmEnvironment.backend(context));
+        return due;
+    }
+
+    /**
+     * Re-register every pending reminder from {@link AlarmStore} in a single
+     * pass, e.g. after a reboot wiped AlarmManager. Reminders whose time passed
+     * while the device was off are registered to fire right away.
+     *
+     * @return number of alarms registered
+     */
+    public static synchronized int rehydrate(Context context) {
+        long start = System.nanoTime();
+        long now = AlarmEnvironment.now();
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        List<AlarmEntry> pending = AlarmEnvironment.store(context).all();
+
+        queue = null;
+        armNext(context, backend);
+        if (isNextAlarmOnly(context)) {
+            AlarmLog.d(TAG, "Rehydrated next-alarm-only queue of {} alarms in {}ms",
+                    pending.size(), (System.nanoTime() - start) / 1_000_000);
+            return pending.isEmpty() ? 0 : 1;
+        }
+
+        int missed = 0;
+        for (AlarmEntry entry : pending) {
+            if (queued(false, entry)) {
+                continue; // behind the shared wakeup armed above
+            }
+            if (entry.timeMillis <= now) {
+                missed++;
+                register(context, backend, entry, now);
+            } else {
+                register(context, backend, entry, entry.timeMillis);
+            }
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        AlarmLog.d(TAG, "Rehydrated {} alarms ({} missed) in {}ms", pending.size(), missed, elapsedMs);
+        if (elapsedMs > REHYDRATE_BUDGET_MS) {
+            AlarmLog.e(TAG, "Alarm rehydration exceeded its {}ms budget", REHYDRATE_BUDGET_MS);
+        }
+        return pending.size();
+    }
+
+    /**
+     * Treat {@code desired} as the complete set of reminders that should be
+     * pending and reconcile AlarmManager with it: new or modified entries are
+     * registered, entries no longer present are cancelled, identical ones are
+     * left alone. Entries whose time has already passed are skipped, except
+     * recurring ones, which move on to their next occurrence.
+     *
+     * @throws IllegalArgumentException if an entry has a malformed recurrence rule
+     */
+    public static synchronized BatchResult applyBatch(Context context, List<AlarmEntry> desired) {
+        long start = System.nanoTime();
+        long now = AlarmEnvironment.now();
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        ReminderStore store = AlarmEnvironment.store(context);
+        boolean nextAlarmOnly = isNextAlarmOnly(context);
+        BatchResult result = new BatchResult();
+
+        HashMap<Integer, AlarmEntry> wanted = new HashMap<>(desired.size() * 2);
+        for (AlarmEntry entry : desired) {
+            entry = resolveRecurrence(entry, now);
+            if (entry == null || entry.timeMillis <= now) {
+                result.skipped++;
+                continue;
+            }
+            wanted.put(entry.id, entry);
+        }
+
+        List<Integer> removes = new ArrayList<>();
+        boolean queueChanged = false;
+        for (AlarmEntry existing : store.all()) {
+            if (!wanted.containsKey(existing.id)) {
+                if (AlarmSnooze.isPending(context, existing.id, now)) {
+                    if (existing.recurrence == null) {
+                        continue; // snoozed natively; the app's copy is already past
+                    }
+                    AlarmSnooze.reset(context, existing.id);
+                }
+                if (existing.timeMillis > now) {
+                    if (!queued(nextAlarmOnly, existing)) {
+                        cancel(context, backend, existing.id);
+                    }
+                    result.cancelled++;
+                }
+                if (queued(nextAlarmOnly, existing)) {
+                    queueChanged = true;
+                }
+                removes.add(existing.id);
+            }
+        }
+
+        List<AlarmEntry> puts = new ArrayList<>();
+        for (AlarmEntry entry : wanted.values()) {
+            AlarmEntry existing = store.get(entry.id);
+            if (entry.sameAlarmAs(existing)) {
+                result.unchanged++;
+                continue;
+            }
+            if (AlarmSnooze.isPending(context, entry.id, now)) {
+                if (entry.recurrence != null && entry.samePayloadAs(existing)) {
+                    // The app's copy is the next regular occurrence; keep the snooze.
+                    result.unchanged++;
+                    continue;
+                }
+                // Edited while snoozed: the edit wins and the snooze chain ends.
+                AlarmSnooze.reset(context, entry.id);
+            } else {
+                AlarmSnooze.clearStale(context, entry);
+            }
+            if (queued(nextAlarmOnly, entry)) {
+                if (existing != null && !queued(nextAlarmOnly, existing)) {
+                    cancel(context, backend, entry.id);
+                }
+                queueChanged = true;
+            } else {
+                register(context, backend, entry);
+                queueChanged |= existing != null && queued(nextAlarmOnly, existing);
+            }
+            puts.add(entry);
+            result.scheduled++;
+        }
+
+        store.update(puts, removes);
+        if (queueChanged) {
+            AlarmQueue q = queue(context);
+            for (Integer id : removes) {
+                q.remove(id);
+            }
+            for (AlarmEntry entry : puts) {
+                if (queued(nextAlarmOnly, entry)) {
+                    q.add(entry);
+                } else {
+                    q.remove(entry.id);
+                }
+            }
+            armNext(context, backend);
+        }
+
+        result.elapsedMicros = (System.nanoTime() - start) / 1000;
+        AlarmLog.d(TAG, "Batch of {} applied in {}us", desired.size(), result.elapsedMicros);
+        AlarmLog.d(TAG, "Batch result: {} scheduled, {} cancelled, {} unchanged, {} skipped",
+                result.scheduled, result.cancelled, result.unchanged, result.skipped);
+        return result;
+    }
+
+    /**
+     * Canonicalise a recurring entry (its rule gains a DTSTART) and, if its
+     * time has passed, move it to the next occurrence.
+     *
+     * @return the entry to schedule, or null if the series has ended
+     */
+    private static AlarmEntry resolveRecurrence(AlarmEntry entry, long now) {
+        if (entry.recurrence == null) {
+            return entry;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        Recurrence rule = Recurrence.parse(entry.recurrence, entry.timeMillis, zone);
+        long time = entry.timeMillis > now ? entry.timeMillis : rule.nextAfter(now, zone);
+        if (time < 0) {
+            return null;
+        }
+        return new AlarmEntry(entry.id, time, entry.title, entry.body, entry.taskType, rule.toRule());
+    }
+
+    /**
+     * The occurrence of a recurring reminder that follows {@code fired}, never
+     * in the past; null for one-shot reminders and finished series.
+     */
+    private static AlarmEntry nextOccurrence(AlarmEntry fired, long now) {
+        if (fired == null || fired.recurrence == null) {
+            return null;
+        }
+        ZoneId zone = ZoneId.systemDefault();
+        try {
+            long next = Recurrence.parse(fired.recurrence, fired.timeMillis, zone)
+                    .nextAfter(Math.max(now, fired.timeMillis), zone);
+            return next < 0 ? null : fired.withTime(next);
+        } catch (IllegalArgumentException e) {
+            AlarmLog.e(TAG, "Dropping unreadable recurrence of alarm {}", fired.id, e);
+            return null;
+        }
+    }
+
+    private static void register(Context context, AlarmBackend backend, AlarmEntry entry) {
+        register(context, backend, entry, entry.timeMillis);
+    }
+
+    private static void register(Context context, AlarmBackend backend, AlarmEntry entry, long triggerAtMillis) {
+        // Only the id: the payload stays in the store instead of system_server.
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        intent.putExtra("id", entry.id);
+
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+                context,
+                entry.id,
+                intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+
+        long now = AlarmEnvironment.now();
+        DeliveryStrategy strategy = DeliveryStrategy.select(entry, triggerAtMillis, now,
+                backend.canScheduleExactAlarms());
+        deliver(backend, strategy, pendingIntent);
+    }
+
+    /**
+     * Hand {@code operation} to AlarmManager the way {@code strategy} says.
+     */
+    static void deliver(AlarmBackend backend, DeliveryStrategy strategy, PendingIntent operation) {
+        switch (strategy.mode) {
+            case DeliveryStrategy.ALARM_CLOCK:
+                backend.setAlarmClock(strategy.triggerAtMillis, operation);
+                break;
+            case DeliveryStrategy.WINDOW:
+                backend.setWindow(strategy.triggerAtMillis, strategy.windowMillis, operation);
+                break;
+            default:
+                backend.setExact(strategy.triggerAtMillis, operation);
+                break;
+        }
+    }
+
+    private static void cancel(Context context, AlarmBackend backend, int id) {
+        Intent intent = new Intent(context, AlarmReceiver.class);
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+                context,
+                id,
+                intent,
+                PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+        if (pendingIntent != null) {
+            backend.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+
+    /**
+     * Point the shared wakeup at the earliest queued reminder, or cancel it if
+     * nothing is queued.
+     */
+    private static void armNext(Context context, AlarmBackend backend) {
+        AlarmEntry next = queue(context).peek();
+        if (next == null) {
+            cancelNext(context, backend);
+            return;
+        }
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+                context, 0, nextAlarmIntent(context),
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        long now = AlarmEnvironment.now();
+        deliver(backend, DeliveryStrategy.select(next, next.timeMillis, now,
+                backend.canScheduleExactAlarms()), pendingIntent);
+    }
+
+    private static void cancelNext(Context context, AlarmBackend backend) {
+        PendingIntent pendingIntent = PendingIntent.getBroadcast(
+                context, 0, nextAlarmIntent(context),
+                PendingIntent.FLAG_NO_CREATE | PendingIntent.FLAG_IMMUTABLE);
+        if (pendingIntent != null) {
+            backend.cancel(pendingIntent);
+            pendingIntent.cancel();
+        }
+    }
+
+    private static Intent nextAlarmIntent(Context context) {
+        return new Intent(context, AlarmReceiver.class).setAction(ACTION_NEXT_ALARM);
+    }
+
+    /**
+     * Forget the in-memory queue; it is rebuilt from the store on next use.
+     */
+    static synchronized void invalidateQueue() {
+        queue = null;
+    }
+
+    private static AlarmQueue queue(Context context) {
+        if (queue == null) {
+            boolean nextAlarmOnly = isNextAlarmOnly(context);
+            queue = new AlarmQueue();
+            for (AlarmEntry entry : AlarmEnvironment.store(context).all()) {
+                if (queued(nextAlarmOnly, entry)) {
+                    queue.add(entry);
+                }
+            }
+        }
+        return queue;
+    }
+
+    /**
+     * Whether {@code entry} waits behind the shared wakeup instead of having an
+     * alarm of its own.
+     */
+    private static boolean queued(boolean nextAlarmOnly, AlarmEntry entry) {
+        return nextAlarmOnly || DeliveryStrategy.sharesWakeup(entry);
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
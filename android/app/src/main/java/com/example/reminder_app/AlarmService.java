@@ -1,65 +1,43 @@
 package com.example.reminder_app;
 
 import android.app.Service;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
 import android.content.Intent;
-import android.media.MediaPlayer;
+import android.content.pm.ServiceInfo;
 import android.os.Build;
 import android.os.IBinder;
 import androidx.annotation.Nullable;
-import androidx.core.app.NotificationCompat;
-import android.util.Log;
-import android.media.RingtoneManager;
-import android.net.Uri;
 
 public class AlarmService extends Service {
 
-    private MediaPlayer mediaPlayer;
-    private static final String CHANNEL_ID = "alarm_service_channel_2";
+    private static final String TAG = "AlarmService";
 
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         // Log to verify service start
-        Log.e("AlarmService", "Service triggered");
-
-        // Find custom sound in raw folder
-        int resId = getResources().getIdentifier("second_alarm", "raw", getPackageName());
-        Log.e("AlarmService", "resId = " + resId);
-
-        if (resId != 0) {
-            mediaPlayer = MediaPlayer.create(this, resId);
-            // Loop the sound
-
-            Log.e("AlarmService", "Sound found! Playing");
-        } else {
-            Log.e("AlarmService", "Sound not found! Using default.");
-            mediaPlayer = MediaPlayer.create(this,
-                    RingtoneManager.getDefaultUri(RingtoneManager.TYPE_ALARM));
-        }
-
-        mediaPlayer.start();
-        mediaPlayer.setLooping(true);
+        AlarmLog.d(TAG, "Service triggered");
 
         // Setup foreground notification to prevent service from being killed
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    CHANNEL_ID,
-                    "Alarm Service",
-                    NotificationManager.IMPORTANCE_LOW);
-            channel.setDescription("Alarm is running");
-            NotificationManager manager = getSystemService(NotificationManager.class);
-            if (manager != null) {
-                manager.createNotificationChannel(channel);
+            try {
+                if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                    // Must match android:foregroundServiceType, or targetSdk 34+ refuses it.
+                    startForeground(AlarmNotifications.SERVICE_NOTIFICATION_ID, AlarmNotifications.service(this),
+                            ServiceInfo.FOREGROUND_SERVICE_TYPE_MEDIA_PLAYBACK);
+                } else {
+                    startForeground(AlarmNotifications.SERVICE_NOTIFICATION_ID, AlarmNotifications.service(this));
+                }
+            } catch (IllegalStateException e) {
+                // ForegroundServiceStartNotAllowedException: the ring goes on without a holder.
+                AlarmLog.w(TAG, "Not allowed to run in the foreground");
+                stopSelf();
+                return START_NOT_STICKY;
             }
+        }
 
-            NotificationCompat.Builder notification = new NotificationCompat.Builder(this, CHANNEL_ID)
-                    .setContentTitle("Alarm Running")
-                    .setContentText("Your alarm is active")
-                    .setSmallIcon(R.mipmap.ic_launcher)
-                    .setPriority(NotificationCompat.PRIORITY_LOW);
-
-            startForeground(1, notification.build());
+        // Ringing is owned by AlarmSessions; after a restart with nothing ringing there is nothing to hold.
+        if (AlarmSessions.isEmpty()) {
+            stopSelf();
+            return START_NOT_STICKY;
         }
 
         return START_STICKY;
@@ -67,13 +45,10 @@ public class AlarmService extends Service {
 
     @Override
     public void onDestroy() {
-        if (mediaPlayer != null) {
-            mediaPlayer.stop();
-            mediaPlayer.release();
-            mediaPlayer = null;
-        }
+        // The service only keeps the process in the foreground; the ring belongs
+        // to AlarmSessions and ends when its last session stops.
         super.onDestroy();
-        Log.e("AlarmService", "Service destroyed");
+        AlarmLog.d(TAG, "Service destroyed");
     }
 
     @Nullable
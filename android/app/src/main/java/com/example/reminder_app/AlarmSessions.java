@@ -0,0 +1,164 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+import androidx.core.content.ContextCompat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks every alarm that is currently ringing, keyed by reminder id.
+ *
+ * Each session owns its own notification (notification id = reminder id)
+ * and holds one reference on the shared {@link AlarmSound}, so several
+ * reminders can ring at once and snooze/stop act on exactly one of them.
+ * {@link AlarmService} runs as the foreground holder while any session is open.
+ * The ring itself runs in-process and does not depend on it: reminders that
+ * were delivered through a window, without the exact alarm permission, have
+ * no background-start exemption, and on Android 12+ the service may be
+ * refused for them.
+ *
+ * Notification actions carry only the reminder id, so the payload of every
+ * ringing reminder is also kept on disk until its session ends; snooze still
+ * works if the process was killed while the alarm was showing.
+ */
+public final class AlarmSessions {
+
+    private static final String TAG = "AlarmSessions";
+
+    /** Session id used for the grouped notification of deferred reminders. */
+    public static final int GROUP_SESSION_ID = Integer.MIN_VALUE;
+
+    /**
+     * One ringing alarm.
+     */
+    public static final class Session {
+        public final AlarmEntry entry;
+        public final long startedAtMillis;
+        /** {@link SystemClock#elapsedRealtime()} when the alarm broadcast arrived. */
+        public final long firedAtElapsed;
+
+        Session(AlarmEntry entry, long startedAtMillis, long firedAtElapsed) {
+            this.entry = entry;
+            this.startedAtMillis = startedAtMillis;
+            this.firedAtElapsed = firedAtElapsed;
+        }
+    }
+
+    private static final ConcurrentHashMap<Integer, Session> ACTIVE = new ConcurrentHashMap<>();
+
+    private AlarmSessions() {
+    }
+
+    /**
+     * Open a ringing session for {@code entry} and make sure the alarm sound and
+     * foreground service are running. Firing again for an id that is already
+     * ringing replaces its details without adding another ring reference, and
+     * the service is only started for the first session.
+     */
+    public static Session start(Context context, AlarmEntry entry) {
+        return start(context, entry, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Like {@link #start(Context, AlarmEntry)}, for an alarm whose broadcast
+     * arrived at {@code firedAtElapsed} on the elapsed-realtime clock.
+     */
+    public static synchronized Session start(Context context, AlarmEntry entry, long firedAtElapsed) {
+        Session session = new Session(entry, AlarmEnvironment.now(), firedAtElapsed);
+        if (entry.id != GROUP_SESSION_ID) {
+            AlarmEnvironment.ringingStore(context).put(entry);
+        }
+        boolean first = ACTIVE.isEmpty();
+        if (ACTIVE.put(entry.id, session) == null) {
+            AlarmEnvironment.sound(context).acquire();
+        }
+        if (first) {
+            // Locked against stop(), so the service is never stopped under a new session.
+            startService(context);
+        }
+        return session;
+    }
+
+    /**
+     * End one session: remove its notification and ring reference, and stop
+     * the service once nothing is ringing.
+     *
+     * @return the ended session, or null if {@code id} was not ringing
+     */
+    public static synchronized Session stop(Context context, int id) {
+        Session session = ACTIVE.remove(id);
+        AlarmEnvironment.ringingStore(context).remove(id);
+        AlarmEnvironment.notifier(context).cancel(id);
+        if (session != null) {
+            AlarmEnvironment.sound(context).release();
+            AlarmBurst.onStopped(context, id);
+        }
+        if (ACTIVE.isEmpty()) {
+            context.stopService(new Intent(context, AlarmService.class));
+        }
+        return session;
+    }
+
+    /**
+     * End every session, e.g. for a notification that predates per-id sessions.
+     */
+    public static synchronized void stopAll(Context context) {
+        AlarmNotifier manager = AlarmEnvironment.notifier(context);
+        for (Integer id : new ArrayList<>(ACTIVE.keySet())) {
+            if (ACTIVE.remove(id) != null) {
+                manager.cancel(id);
+            }
+        }
+        manager.cancel(AlarmNotifications.NOTIFICATION_ID);
+        manager.cancel(AlarmBurst.SUMMARY_ID);
+        ReminderStore store = AlarmEnvironment.ringingStore(context);
+        List<Integer> ids = new ArrayList<>();
+        for (AlarmEntry entry : store.all()) {
+            ids.add(entry.id);
+        }
+        store.update(Collections.emptyList(), ids);
+        AlarmBurst.clear();
+        AlarmEnvironment.sound(context).stopAll();
+        context.stopService(new Intent(context, AlarmService.class));
+    }
+
+    private static void startService(Context context) {
+        try {
+            ContextCompat.startForegroundService(context, new Intent(context, AlarmService.class));
+        } catch (IllegalStateException e) {
+            // ForegroundServiceStartNotAllowedException: no exemption for this wakeup.
+            AlarmLog.w(TAG, "Alarm service not allowed to start, ringing without it");
+        }
+    }
+
+    public static Session get(int id) {
+        return ACTIVE.get(id);
+    }
+
+    /**
+     * The reminder behind {@code id}: its ringing session, the payload it left
+     * on disk, or the pending entry in the reminder store; null if none exists.
+     */
+    public static AlarmEntry payload(Context context, int id) {
+        Session session = ACTIVE.get(id);
+        if (session != null) {
+            return session.entry;
+        }
+        AlarmEntry entry = AlarmEnvironment.ringingStore(context).get(id);
+        return entry != null ? entry : AlarmEnvironment.store(context).get(id);
+    }
+
+    public static boolean isEmpty() {
+        return ACTIVE.isEmpty();
+    }
+
+    public static List<Session> active() {
+        Collection<Session> values = ACTIVE.values();
+        return new ArrayList<>(values);
+    }
+}
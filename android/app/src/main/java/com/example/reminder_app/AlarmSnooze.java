@@ -0,0 +1,188 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Snooze policy: how long each snooze lasts and how often a reminder may be snoozed.
+ *
+ * Intervals are a list of minutes; the n-th snooze of a reminder uses the
+ * n-th interval and the last one repeats, so "5" snoozes for 5 minutes every
+ * time and "5,10,15" escalates. A snoozed reminder is rescheduled through
+ * {@link AlarmScheduler} under its own id with its original title, body and
+ * task type, and its chain is tracked in {@link SnoozeStore} until it is stopped.
+ */
+public class AlarmSnooze {
+
+    private static final String TAG = "AlarmSnooze";
+    private static final String PREFS_NAME = "alarm_snooze_prefs";
+
+    // Snooze lengths in minutes, comma-separated, e.g. "5,10,15"
+    private static final String KEY_INTERVALS = "snooze_intervals";
+    // Maximum snoozes per reminder; 0 means unlimited
+    private static final String KEY_MAX_COUNT = "snooze_max_count";
+
+    private static final String DEFAULT_INTERVALS = "5";
+    private static final int DEFAULT_MAX_COUNT = 3;
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private static volatile int[] intervals;
+
+    /**
+     * Snooze {@code entry} by its next interval.
+     *
+     * @return when the reminder will ring again, or -1 if it has used up its snoozes
+     */
+    public static long snooze(Context context, AlarmEntry entry) {
+        SnoozeStore store = AlarmEnvironment.snoozeStore(context);
+        SnoozeStore.Record record = store.get(entry.id);
+        int count = record != null ? record.count : 0;
+        if (!withinLimit(context, count)) {
+            AlarmLog.d(TAG, "Alarm {} reached the snooze limit after {} snoozes", entry.id, count);
+            store.clear(entry.id);
+            return -1;
+        }
+
+        String recurrence = entry.recurrence;
+        if (recurrence == null) {
+            // Payload rebuilt from the notification after a process restart: the
+            // store still knows whether this reminder repeats.
+            AlarmEntry stored = AlarmEnvironment.store(context).get(entry.id);
+            recurrence = stored != null ? stored.recurrence : null;
+        }
+
+        long snoozeAt = AlarmEnvironment.now() + intervalMinutes(context, count) * MILLIS_PER_MINUTE;
+        store.put(entry.id, count + 1, snoozeAt);
+        // A recurring reminder resumes its normal schedule after the snoozed fire.
+        AlarmScheduler.scheduleExactAlarm(context,
+                new AlarmEntry(entry.id, snoozeAt, entry.title, entry.body, entry.taskType, recurrence));
+        AlarmLog.d(TAG, "Alarm {} snoozed ({}) until {}", entry.id, count + 1, snoozeAt);
+        return snoozeAt;
+    }
+
+    /**
+     * Whether the ringing reminder {@code id} may still be snoozed.
+     */
+    public static boolean canSnooze(Context context, int id) {
+        SnoozeStore.Record record = AlarmEnvironment.snoozeStore(context).get(id);
+        return withinLimit(context, record != null ? record.count : 0);
+    }
+
+    /**
+     * Whether {@code id} is waiting on a snooze that has not fired yet.
+     */
+    public static boolean isPending(Context context, int id, long now) {
+        SnoozeStore.Record record = AlarmEnvironment.snoozeStore(context).get(id);
+        return record != null && record.snoozedUntil > now;
+    }
+
+    /**
+     * Forget the snooze chain of {@code entry} unless {@code entry} is that
+     * chain's snooze. Called whenever a reminder is scheduled or fires, so a
+     * chain whose alarm was never stopped, e.g. after the process died, does
+     * not carry its count over to the next regular ring.
+     */
+    static void clearStale(Context context, AlarmEntry entry) {
+        SnoozeStore store = AlarmEnvironment.snoozeStore(context);
+        SnoozeStore.Record record = store.get(entry.id);
+        if (record != null && record.snoozedUntil != entry.timeMillis) {
+            store.clear(entry.id);
+        }
+    }
+
+    /**
+     * Forget the snooze chain of {@code id}, e.g. once the user stopped it.
+     */
+    public static void reset(Context context, int id) {
+        AlarmEnvironment.snoozeStore(context).clear(id);
+    }
+
+    /**
+     * Save the snooze settings.
+     *
+     * @param intervalMinutes one or more positive snooze lengths in minutes
+     * @param maxCount        maximum snoozes per reminder, 0 for unlimited
+     */
+    public static void saveSettings(Context context, List<Integer> intervalMinutes, int maxCount) {
+        StringBuilder joined = new StringBuilder();
+        for (Integer minutes : intervalMinutes) {
+            if (joined.length() > 0) {
+                joined.append(',');
+            }
+            joined.append(minutes);
+        }
+        prefs(context).edit()
+                .putString(KEY_INTERVALS, joined.toString())
+                .putInt(KEY_MAX_COUNT, maxCount)
+                .apply();
+        intervals = null;
+        AlarmLog.d(TAG, "Snooze settings saved: max={} intervals={}", maxCount, joined.toString());
+    }
+
+    /**
+     * Get the snooze settings as a map for Flutter.
+     */
+    public static HashMap<String, Object> getSettings(Context context) {
+        ArrayList<Integer> minutes = new ArrayList<>();
+        for (int value : intervals(context)) {
+            minutes.add(value);
+        }
+        HashMap<String, Object> settings = new HashMap<>();
+        settings.put("intervals", minutes);
+        settings.put("maxCount", maxCount(context));
+        return settings;
+    }
+
+    private static boolean withinLimit(Context context, int count) {
+        int max = maxCount(context);
+        return max <= 0 || count < max;
+    }
+
+    private static long intervalMinutes(Context context, int count) {
+        int[] values = intervals(context);
+        return values[Math.min(count, values.length - 1)];
+    }
+
+    private static int maxCount(Context context) {
+        return prefs(context).getInt(KEY_MAX_COUNT, DEFAULT_MAX_COUNT);
+    }
+
+    private static int[] intervals(Context context) {
+        int[] values = intervals;
+        if (values == null) {
+            values = parseIntervals(prefs(context).getString(KEY_INTERVALS, DEFAULT_INTERVALS));
+            intervals = values;
+        }
+        return values;
+    }
+
+    private static int[] parseIntervals(String value) {
+        List<Integer> parsed = new ArrayList<>();
+        for (String part : value.split(",")) {
+            try {
+                int minutes = Integer.parseInt(part.trim());
+                if (minutes > 0) {
+                    parsed.add(minutes);
+                }
+            } catch (NumberFormatException e) {
+                // Skip invalid entries
+            }
+        }
+        if (parsed.isEmpty()) {
+            parsed.add(Integer.parseInt(DEFAULT_INTERVALS));
+        }
+        int[] values = new int[parsed.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = parsed.get(i);
+        }
+        return values;
+    }
+
+    private static SharedPreferences prefs(Context context) {
+        return context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+}
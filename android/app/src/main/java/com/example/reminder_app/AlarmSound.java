@@ -0,0 +1,20 @@
+package com.example.reminder_app;
+
+/**
+ * The shared alarm ring, reference counted across ringing sessions.
+ * {@link AlarmPlayer} is the on-device implementation.
+ */
+public interface AlarmSound {
+
+    /** Get ready to play without making a sound. */
+    void prewarm();
+
+    /** One more alarm is ringing; starts the sound if it is the first. */
+    void acquire();
+
+    /** One alarm stopped ringing; silences the sound once none are left. */
+    void release();
+
+    /** Silence every alarm at once. */
+    void stopAll();
+}
@@ -0,0 +1,258 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * On-device record of every pending reminder, kept as a single append-only
+ * log file so that writes are cheap and a reboot can restore everything in
+ * one sequential read.
+ *
+ * Each record is a one-byte opcode followed by its data:
+ * <pre>
+ *   PUT    (1): entry as written by {@link AlarmBatchCodec#encodeEntry}
+ *   REMOVE (2): int id
+ * </pre>
+ * Replaying the log from the start yields the live set. When dead records
+ * outnumber live ones the log is rewritten with just the live entries.
+ */
+public class AlarmStore implements ReminderStore {
+
+    private static final String TAG = "AlarmStore";
+    private static final String FILE_NAME = "alarm_store.log";
+
+    private static final int MAGIC = 0x414c5253; // "ALRS"
+    // Entries are stored in the matching AlarmBatchCodec layout; version 1 logs are upgraded on load.
+    private static final byte FORMAT_VERSION = AlarmBatchCodec.VERSION;
+    private static final byte LEGACY_FORMAT_VERSION = AlarmBatchCodec.VERSION_WITHOUT_RECURRENCE;
+    private static final int HEADER_SIZE = 5;
+
+    private static final byte OP_PUT = 1;
+    private static final byte OP_REMOVE = 2;
+
+    // Compact once the log holds this many more records than live entries.
+    private static final int COMPACT_SLACK = 64;
+
+    private static AlarmStore instance;
+
+    private final File file;
+    private final LinkedHashMap<Integer, AlarmEntry> entries = new LinkedHashMap<>();
+    private int recordCount;
+    private boolean loaded;
+
+    public static synchronized AlarmStore get(Context context) {
+        if (instance == null) {
+            instance = new AlarmStore(new File(context.getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    public AlarmStore(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public synchronized AlarmEntry get(int id) {
+        ensureLoaded();
+        return entries.get(id);
+    }
+
+    /**
+     * Snapshot of all live entries in insertion order.
+     */
+    @Override
+    public synchronized List<AlarmEntry> all() {
+        ensureLoaded();
+        return new ArrayList<>(entries.values());
+    }
+
+    @Override
+    public synchronized int size() {
+        ensureLoaded();
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void put(AlarmEntry entry) {
+        ensureLoaded();
+        entries.put(entry.id, entry);
+        append(putRecord(entry));
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        ensureLoaded();
+        if (entries.remove(id) != null) {
+            append(removeRecord(id));
+        }
+    }
+
+    /**
+     * Apply a group of puts and removes with a single file append.
+     */
+    @Override
+    public synchronized void update(Collection<AlarmEntry> puts, Collection<Integer> removes) {
+        ensureLoaded();
+        List<byte[]> records = new ArrayList<>(puts.size() + removes.size());
+        int size = 0;
+        for (Integer id : removes) {
+            if (entries.remove(id) != null) {
+                byte[] record = removeRecord(id);
+                records.add(record);
+                size += record.length;
+            }
+        }
+        for (AlarmEntry entry : puts) {
+            entries.put(entry.id, entry);
+            byte[] record = putRecord(entry);
+            records.add(record);
+            size += record.length;
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        for (byte[] record : records) {
+            buffer.put(record);
+        }
+        append(buffer.array(), records.size());
+    }
+
+    private void append(byte[] record) {
+        append(record, 1);
+    }
+
+    private void append(byte[] data, int records) {
+        if (recordCount + records > entries.size() * 2 + COMPACT_SLACK) {
+            compact();
+            return;
+        }
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            if (file.length() == 0) {
+                out.write(header());
+            }
+            out.write(data);
+            recordCount += records;
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to append to alarm store", e);
+        }
+    }
+
+    /**
+     * Rewrite the log so it contains exactly one PUT per live entry.
+     */
+    private void compact() {
+        List<byte[]> records = new ArrayList<>(entries.size());
+        int size = HEADER_SIZE;
+        for (AlarmEntry entry : entries.values()) {
+            byte[] record = putRecord(entry);
+            records.add(record);
+            size += record.length;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(header());
+        for (byte[] record : records) {
+            buffer.put(record);
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to compact alarm store", e);
+            return;
+        }
+        if (tmp.renameTo(file)) {
+            recordCount = records.size();
+        } else {
+            AlarmLog.e(TAG, "Failed to replace alarm store during compaction");
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+
+        byte[] data;
+        try (FileInputStream in = new FileInputStream(file)) {
+            data = new byte[(int) file.length()];
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to read alarm store, starting empty", e);
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        byte version = data.length < HEADER_SIZE || buffer.getInt() != MAGIC ? -1 : buffer.get();
+        if (version != FORMAT_VERSION && version != LEGACY_FORMAT_VERSION) {
+            AlarmLog.e(TAG, "Alarm store has an unknown format, starting empty");
+            file.delete();
+            return;
+        }
+
+        int goodRecords = 0;
+        while (buffer.hasRemaining()) {
+            int recordStart = buffer.position();
+            try {
+                byte op = buffer.get();
+                if (op == OP_PUT) {
+                    AlarmEntry entry = AlarmBatchCodec.readEntry(buffer, version);
+                    entries.put(entry.id, entry);
+                } else if (op == OP_REMOVE) {
+                    entries.remove(buffer.getInt());
+                } else {
+                    throw new BufferUnderflowException();
+                }
+                goodRecords++;
+            } catch (BufferUnderflowException e) {
+                // Torn write at the tail (e.g. process killed mid-append): drop it.
+                AlarmLog.e(TAG, "Discarding damaged alarm store tail at offset {}", recordStart);
+                recordCount = goodRecords;
+                compact();
+                return;
+            }
+        }
+        recordCount = goodRecords;
+        if (version == LEGACY_FORMAT_VERSION) {
+            compact();
+        }
+    }
+
+    private static byte[] header() {
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).put(FORMAT_VERSION).array();
+    }
+
+    private static byte[] putRecord(AlarmEntry entry) {
+        byte[] encoded = AlarmBatchCodec.encodeEntry(entry);
+        byte[] record = new byte[encoded.length + 1];
+        record[0] = OP_PUT;
+        System.arraycopy(encoded, 0, record, 1, encoded.length);
+        return record;
+    }
+
+    private static byte[] removeRecord(int id) {
+        return ByteBuffer.allocate(5).put(OP_REMOVE).putInt(id).array();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.reminder_app;
+
+/**
+ * Source of wall-clock time for scheduling decisions, so they can be driven
+ * by a fake clock off-device.
+ */
+public interface Clock {
+
+    Clock SYSTEM = System::currentTimeMillis;
+
+    /** Epoch millis, as {@link System#currentTimeMillis()}. */
+    long currentTimeMillis();
+}
@@ -0,0 +1,114 @@
+package com.example.reminder_app;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds reminders that fired during quiet hours under the "defer" policy and
+ * releases them together when the quiet period ends.
+ *
+ * Deferred reminders are appended to their own {@link ReminderStore} and
+ * share a single FLUSH_DEFERRED wakeup at the end of the quiet window, so any
+ * number of suppressed reminders costs one AlarmManager registration.
+ */
+public class DeferredAlarms {
+
+    private static final String TAG = "DeferredAlarms";
+
+    public static final String ACTION_FLUSH_DEFERRED = "com.example.reminder_app.FLUSH_DEFERRED";
+
+    // Trigger time of the flush this process armed, guarded by DeferredAlarms.class.
+    // Only trusted while the PendingIntent still exists, which a reboot or force
+    // stop clears.
+    private static long armedAt = -1;
+
+    private static ReminderStore store(Context context) {
+        return AlarmEnvironment.deferredStore(context);
+    }
+
+    /**
+     * Hold {@code entry} until the current quiet period ends.
+     *
+     * @return false if quiet hours never end (whole week covered), in which case nothing was queued
+     */
+    public static synchronized boolean defer(Context context, AlarmEntry entry) {
+        long quietEnd = QuietHoursHelper.nextQuietEnd(context, AlarmEnvironment.now());
+        if (quietEnd < 0) {
+            return false;
+        }
+        store(context).put(entry);
+        armFlush(context, quietEnd);
+        AlarmLog.d(TAG, "Deferred alarm {}; {} waiting for {}", entry.id, store(context).size(), quietEnd);
+        return true;
+    }
+
+    /**
+     * Called by the FLUSH_DEFERRED wakeup. Returns every held reminder in the
+     * order it was deferred and empties the queue, or returns an empty list
+     * (after re-arming) if quiet hours were extended in the meantime.
+     */
+    public static synchronized List<AlarmEntry> takeAll(Context context) {
+        // The wakeup has been used; retire it so the next deferral arms a new one.
+        PendingIntent fired = flushIntent(context, PendingIntent.FLAG_NO_CREATE);
+        if (fired != null) {
+            fired.cancel();
+        }
+        armedAt = -1;
+
+        ReminderStore deferred = store(context);
+        List<AlarmEntry> entries = deferred.all();
+        if (entries.isEmpty()) {
+            return entries;
+        }
+
+        long now = AlarmEnvironment.now();
+        long quietEnd = QuietHoursHelper.nextQuietEnd(context, now);
+        if (quietEnd > now) {
+            // Rules changed while we waited: keep holding until the new end.
+            armFlush(context, quietEnd);
+            return Collections.emptyList();
+        }
+
+        List<Integer> ids = new ArrayList<>(entries.size());
+        for (AlarmEntry entry : entries) {
+            ids.add(entry.id);
+        }
+        deferred.update(Collections.<AlarmEntry>emptyList(), ids);
+        return entries;
+    }
+
+    /**
+     * Re-register the flush wakeup if anything is still held, after a reboot
+     * or a change of time zone or clock moved the end of quiet hours.
+     */
+    public static synchronized void rehydrate(Context context) {
+        if (store(context).size() == 0) {
+            return;
+        }
+        armedAt = -1;
+        long now = AlarmEnvironment.now();
+        long quietEnd = QuietHoursHelper.nextQuietEnd(context, now);
+        armFlush(context, quietEnd > 0 ? quietEnd : now);
+    }
+
+    private static void armFlush(Context context, long triggerAtMillis) {
+        if (armedAt == triggerAtMillis && flushIntent(context, PendingIntent.FLAG_NO_CREATE) != null) {
+            return; // already armed for this window
+        }
+
+        PendingIntent pendingIntent = flushIntent(context, PendingIntent.FLAG_UPDATE_CURRENT);
+        AlarmBackend backend = AlarmEnvironment.backend(context);
+        AlarmScheduler.deliver(backend, DeliveryStrategy.forWakeup(triggerAtMillis, AlarmEnvironment.now(),
+                backend.canScheduleExactAlarms()), pendingIntent);
+        armedAt = triggerAtMillis;
+    }
+
+    private static PendingIntent flushIntent(Context context, int flags) {
+        Intent intent = new Intent(context, AlarmReceiver.class).setAction(ACTION_FLUSH_DEFERRED);
+        return PendingIntent.getBroadcast(context, 0, intent, flags | PendingIntent.FLAG_IMMUTABLE);
+    }
+}
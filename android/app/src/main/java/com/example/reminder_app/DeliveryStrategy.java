@@ -0,0 +1,83 @@
+package com.example.reminder_app;
+
+/**
+ * How one reminder is handed to AlarmManager, chosen per reminder:
+ * <ul>
+ *   <li>{@link #ALARM_CLOCK} for safety-critical tasks: never deferred by Doze
+ *       or App Standby, at the cost of a status-bar alarm icon;</li>
+ *   <li>{@link #EXACT} (exact, allowed while idle) for everything else,
+ *       including the shared wakeup.</li>
+ * </ul>
+ * Standard reminders never get an alarm of their own: they wait behind the
+ * shared wakeup (see {@link #sharesWakeup}), which also delivers the standard
+ * reminders due within {@link #COALESCE_MS} after it, so a cluster costs one
+ * exact wakeup instead of one rate-limited exact alarm each.
+ * Without the exact alarm permission everything falls back to {@link #WINDOW}.
+ * Windowed wakeups carry no background-start exemption, so whatever they
+ * trigger must not depend on starting a foreground service.
+ *
+ * Pure computation, so it can be exercised off-device with a fake clock.
+ */
+public final class DeliveryStrategy {
+
+    public static final int ALARM_CLOCK = 0;
+    public static final int EXACT = 1;
+    public static final int WINDOW = 2;
+
+    /** Window used without the exact alarm permission; Android 14 stretches shorter windows to this anyway. */
+    static final long WINDOW_MS = 10 * 60_000L;
+
+    /** How far ahead of its time a standard reminder may ride along on an earlier wakeup. */
+    static final long COALESCE_MS = 60_000L;
+
+    static final String TASK_TYPE_STANDARD = "standard";
+    static final String TASK_TYPE_SAFETY_CRITICAL = "safetyCritical";
+
+    public final int mode;
+    /** Exact trigger time, or the start of the window. */
+    public final long triggerAtMillis;
+    /** Window length for {@link #WINDOW}, otherwise 0. */
+    public final long windowMillis;
+
+    private DeliveryStrategy(int mode, long triggerAtMillis, long windowMillis) {
+        this.mode = mode;
+        this.triggerAtMillis = triggerAtMillis;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Pick the delivery for {@code entry}, due at {@code triggerAtMillis}.
+     *
+     * @param exactAllowed the app may currently schedule exact alarms
+     */
+    public static DeliveryStrategy select(AlarmEntry entry, long triggerAtMillis, long now,
+                                          boolean exactAllowed) {
+        long trigger = Math.max(triggerAtMillis, now);
+        if (!exactAllowed) {
+            return new DeliveryStrategy(WINDOW, trigger, WINDOW_MS);
+        }
+        if (TASK_TYPE_SAFETY_CRITICAL.equals(entry.taskType)) {
+            return new DeliveryStrategy(ALARM_CLOCK, trigger, 0);
+        }
+        return new DeliveryStrategy(EXACT, trigger, 0);
+    }
+
+    /**
+     * Whether {@code entry} waits behind the shared wakeup instead of having
+     * an alarm of its own.
+     */
+    public static boolean sharesWakeup(AlarmEntry entry) {
+        return TASK_TYPE_STANDARD.equals(entry.taskType);
+    }
+
+    /**
+     * Delivery for an internal wakeup that is not a reminder of its own, such
+     * as the end of quiet hours: exact when allowed, otherwise a window.
+     */
+    public static DeliveryStrategy forWakeup(long triggerAtMillis, long now, boolean exactAllowed) {
+        long trigger = Math.max(triggerAtMillis, now);
+        return exactAllowed
+                ? new DeliveryStrategy(EXACT, trigger, 0)
+                : new DeliveryStrategy(WINDOW, trigger, WINDOW_MS);
+    }
+}
@@ -2,33 +2,114 @@ package com.example.reminder_app;
 
 import io.flutter.embedding.android.FlutterFragmentActivity;
 import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.FlutterEngineCache;
 import io.flutter.plugin.common.MethodChannel;
-import android.app.AlarmManager;
-import android.app.PendingIntent;
-import android.content.Intent;
-import android.os.Build;
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class MainActivity extends FlutterFragmentActivity {
+    private static final String TAG = "MainActivity";
     private static final String CHANNEL = "com.example.reminder_app/alarm";
 
+    // Batch syncs touch AlarmManager hundreds of times; keep that off the UI thread
+    // and serialise consecutive syncs. Process-wide, like the cached engine whose
+    // channel handler uses it: that handler outlives any one MainActivity.
+    private static final ExecutorService ALARM_EXECUTOR =
+            Executors.newSingleThreadExecutor(r -> new Thread(r, "AlarmChannelWorker"));
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    @Override
+    protected String getCachedEngineId() {
+        String id = super.getCachedEngineId();
+        if (id == null && FlutterEngineCache.getInstance().contains(ReminderApplication.UI_ENGINE_ID)) {
+            return ReminderApplication.UI_ENGINE_ID;
+        }
+        return id;
+    }
+
     @Override
     public void configureFlutterEngine(FlutterEngine flutterEngine) {
         super.configureFlutterEngine(flutterEngine);
+        // The engine is cached and outlives this activity, so the handler only
+        // holds the application context.
+        Context context = getApplicationContext();
 
         new MethodChannel(flutterEngine.getDartExecutor().getBinaryMessenger(), CHANNEL)
                 .setMethodCallHandler(
                         (call, result) -> {
                             if (call.method.equals("scheduleAlarm")) {
-                                long time = call.argument("time");
-                                int id = call.argument("id");
-                                String title = call.argument("title");
-                                String body = call.argument("body");
-                                String taskType = call.argument("taskType");
-                                if (taskType == null)
-                                    taskType = "standard";
-
-                                scheduleExactAlarm(id, time, title, body, taskType);
-                                result.success("Alarm scheduled");
+                                // Either one entry packed by AlarmBatchCodec or the legacy argument map
+                                byte[] payload = call.argument("payload");
+                                long start = System.nanoTime();
+                                AlarmEntry entry;
+                                try {
+                                    if (payload != null) {
+                                        List<AlarmEntry> decoded = AlarmBatchCodec.decode(payload);
+                                        if (decoded.size() != 1) {
+                                            throw new IllegalArgumentException(
+                                                    "payload must hold exactly one alarm, got " + decoded.size());
+                                        }
+                                        entry = decoded.get(0);
+                                    } else {
+                                        long time = call.argument("time");
+                                        int id = call.argument("id");
+                                        entry = new AlarmEntry(id, time,
+                                                call.argument("title"),
+                                                call.argument("body"),
+                                                call.argument("taskType"),
+                                                call.argument("recurrence"));
+                                    }
+                                } catch (IllegalArgumentException e) {
+                                    result.error("INVALID_ARGUMENT", e.getMessage(), null);
+                                    return;
+                                }
+                                // Queued behind any batch sync, so the two never interleave.
+                                AlarmEntry scheduled = entry;
+                                ALARM_EXECUTOR.execute(() -> {
+                                    try {
+                                        AlarmScheduler.scheduleExactAlarm(context, scheduled);
+                                    } catch (IllegalArgumentException e) {
+                                        MAIN.post(() -> result.error("INVALID_ARGUMENT", e.getMessage(), null));
+                                        return;
+                                    }
+                                    AlarmLog.d(TAG, "Alarm {} scheduled in {}us from a {} byte payload (0 = argument map)",
+                                            scheduled.id, (System.nanoTime() - start) / 1000,
+                                            payload != null ? payload.length : 0);
+                                    MAIN.post(() -> result.success("Alarm scheduled"));
+                                });
+                            } else if (call.method.equals("scheduleAlarms")) {
+                                byte[] payload = call.argument("payload");
+                                if (payload == null) {
+                                    result.error("INVALID_ARGUMENT", "payload is required", null);
+                                    return;
+                                }
+                                ALARM_EXECUTOR.execute(() -> {
+                                    try {
+                                        List<AlarmEntry> entries = AlarmBatchCodec.decode(payload);
+                                        AlarmScheduler.BatchResult batch = AlarmScheduler.applyBatch(context, entries);
+                                        MAIN.post(() -> result.success(batch.toMap()));
+                                    } catch (IllegalArgumentException e) {
+                                        MAIN.post(() -> result.error("INVALID_ARGUMENT", e.getMessage(), null));
+                                    }
+                                });
+                            } else if (call.method.equals("setNextAlarmOnly")) {
+                                Boolean enabled = call.argument("enabled");
+                                if (enabled == null) {
+                                    result.error("INVALID_ARGUMENT", "enabled is required", null);
+                                    return;
+                                }
+                                // Re-registers every pending alarm, so keep it off the UI thread.
+                                ALARM_EXECUTOR.execute(() -> {
+                                    AlarmScheduler.setNextAlarmOnly(context, enabled);
+                                    MAIN.post(() -> result.success(enabled));
+                                });
                             } else if (call.method.equals("saveQuietHours")) {
                                 boolean enabled = call.argument("enabled");
                                 int startHour = call.argument("startHour");
@@ -38,43 +119,120 @@ public class MainActivity extends FlutterFragmentActivity {
                                 String days = call.argument("days");
                                 boolean exceptionSafetyCritical = call.argument("exceptionSafetyCritical");
 
-                                QuietHoursHelper.saveSettings(
-                                        this,
-                                        enabled,
-                                        startHour,
-                                        startMinute,
-                                        endHour,
-                                        endMinute,
-                                        days,
-                                        exceptionSafetyCritical);
+                                try {
+                                    QuietHoursHelper.saveSettings(
+                                            context,
+                                            enabled,
+                                            startHour,
+                                            startMinute,
+                                            endHour,
+                                            endMinute,
+                                            days,
+                                            exceptionSafetyCritical);
+                                } catch (IllegalArgumentException e) {
+                                    result.error("INVALID_ARGUMENT", e.getMessage(), null);
+                                    return;
+                                }
                                 result.success("Quiet hours saved");
                             } else if (call.method.equals("getQuietHours")) {
-                                java.util.HashMap<String, Object> settings = QuietHoursHelper.getSettings(this);
+                                java.util.HashMap<String, Object> settings = QuietHoursHelper.getSettings(context);
                                 result.success(settings);
+                            } else if (call.method.equals("saveQuietHoursRules")) {
+                                List<Map<String, Object>> windowArgs = call.argument("windows");
+                                Map<String, String> policyArgs = call.argument("policies");
+
+                                List<QuietSchedule.Window> windows = new ArrayList<>();
+                                if (windowArgs != null) {
+                                    try {
+                                        for (Map<String, Object> w : windowArgs) {
+                                            windows.add(new QuietSchedule.Window(
+                                                    (String) w.get("days"),
+                                                    intArgument(w, "startHour"),
+                                                    intArgument(w, "startMinute"),
+                                                    intArgument(w, "endHour"),
+                                                    intArgument(w, "endMinute")));
+                                        }
+                                    } catch (IllegalArgumentException e) {
+                                        result.error("INVALID_ARGUMENT", e.getMessage(), null);
+                                        return;
+                                    }
+                                }
+                                Map<String, Integer> policies = new HashMap<>();
+                                if (policyArgs != null) {
+                                    for (Map.Entry<String, String> p : policyArgs.entrySet()) {
+                                        int policy = QuietSchedule.parsePolicy(p.getValue());
+                                        if (policy < 0) {
+                                            result.error("INVALID_ARGUMENT", "Unknown quiet hours policy: " + p.getValue(), null);
+                                            return;
+                                        }
+                                        policies.put(p.getKey(), policy);
+                                    }
+                                }
+
+                                QuietHoursHelper.saveRules(context, windows, policies);
+                                result.success("Quiet hours rules saved");
+                            } else if (call.method.equals("getQuietHoursRules")) {
+                                result.success(QuietHoursHelper.getRules(context));
+                            } else if (call.method.equals("saveSnoozeSettings")) {
+                                List<Integer> intervals = call.argument("intervals");
+                                Integer maxCount = call.argument("maxCount");
+                                if (intervals == null || intervals.isEmpty()) {
+                                    result.error("INVALID_ARGUMENT", "intervals must not be empty", null);
+                                    return;
+                                }
+                                for (Integer minutes : intervals) {
+                                    if (minutes == null || minutes <= 0) {
+                                        result.error("INVALID_ARGUMENT", "Snooze intervals must be positive minutes", null);
+                                        return;
+                                    }
+                                }
+
+                                AlarmSnooze.saveSettings(context, intervals, maxCount != null ? maxCount : 0);
+                                result.success("Snooze settings saved");
+                            } else if (call.method.equals("getSnoozeSettings")) {
+                                result.success(AlarmSnooze.getSettings(context));
+                            } else if (call.method.equals("saveBurstSettings")) {
+                                Number windowMs = call.argument("windowMs");
+                                if (windowMs == null || windowMs.longValue() < 0
+                                        || windowMs.longValue() > AlarmBurst.MAX_WINDOW_MS) {
+                                    result.error("INVALID_ARGUMENT",
+                                            "windowMs must be between 0 and " + AlarmBurst.MAX_WINDOW_MS, null);
+                                    return;
+                                }
+
+                                AlarmBurst.saveSettings(context, windowMs.longValue());
+                                result.success("Burst settings saved");
+                            } else if (call.method.equals("getBurstSettings")) {
+                                result.success(AlarmBurst.getSettings(context));
+                            } else if (call.method.equals("setAlarmEventsEnabled")) {
+                                Boolean enabled = call.argument("enabled");
+                                AlarmEvents.setEnabled(context, Boolean.TRUE.equals(enabled));
+                                result.success(Boolean.TRUE.equals(enabled));
+                            } else if (call.method.equals("getAlarmMetrics")) {
+                                Boolean reset = call.argument("reset");
+                                // May map and replay the ring file on first use.
+                                ALARM_EXECUTOR.execute(() -> {
+                                    HashMap<String, Object> metrics = Boolean.TRUE.equals(reset)
+                                            ? AlarmMetrics.snapshotAndReset(context)
+                                            : AlarmMetrics.snapshot(context);
+                                    MAIN.post(() -> result.success(metrics));
+                                });
+                            } else if (call.method.equals("exportAlarmTrace")) {
+                                ALARM_EXECUTOR.execute(() -> {
+                                    String trace = AlarmLog.export(context);
+                                    MAIN.post(() -> result.success(trace));
+                                });
                             } else {
                                 result.notImplemented();
                             }
                         });
     }
 
-    private void scheduleExactAlarm(int id, long timeMillis, String title, String body, String taskType) {
-        AlarmManager alarmManager = (AlarmManager) getSystemService(ALARM_SERVICE);
-        Intent intent = new Intent(this, AlarmReceiver.class);
-        intent.putExtra("title", title);
-        intent.putExtra("body", body);
-        intent.putExtra("taskType", taskType);
-
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                this,
-                id,
-                intent,
-                PendingIntent.FLAG_UPDATE_CURRENT
-                        | (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S ? PendingIntent.FLAG_MUTABLE : 0));
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
-            alarmManager.setExactAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, timeMillis, pendingIntent);
-        } else {
-            alarmManager.setExact(AlarmManager.RTC_WAKEUP, timeMillis, pendingIntent);
+    private static int intArgument(Map<String, Object> arguments, String key) {
+        Object value = arguments.get(key);
+        if (!(value instanceof Integer)) {
+            throw new IllegalArgumentException(key + " must be an integer, got " + value);
         }
+        return (Integer) value;
     }
 }
@@ -2,8 +2,11 @@ package com.example.reminder_app;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Log;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
 
 /**
  * Helper class for managing Quiet Hours functionality.
@@ -22,6 +25,14 @@ public class QuietHoursHelper {
     private static final String KEY_END_MINUTE = "quiet_hours_end_minute";
     private static final String KEY_DAYS = "quiet_hours_days"; // comma-separated: "0,1,2,3,4" for Mon-Fri
     private static final String KEY_EXCEPTION_SAFETY_CRITICAL = "quiet_hours_exception_safety_critical";
+    // Additional windows on top of the main one: "days@HH:MM-HH:MM" joined by ';',
+    // e.g. "0,1,2,3,4@08:00-15:00;4@12:30-13:30"
+    private static final String KEY_EXTRA_WINDOWS = "quiet_hours_extra_windows";
+    // Per-task-type policies: "taskType=policy" joined by ';', e.g. "standard=defer;chore=silent"
+    private static final String KEY_POLICIES = "quiet_hours_policies";
+
+    // Compiled form of the stored settings; rebuilt lazily after saveSettings/invalidate.
+    private static volatile QuietSchedule schedule;
 
     /**
      * Check if quiet hours are currently active.
@@ -29,101 +40,93 @@ public class QuietHoursHelper {
      * 1. Quiet hours are enabled
      * 2. Current day is in the selected days
      * 3. Current time is within the start-end time range
+     *
+     * Runs on every alarm fire, so it only consults the cached {@link QuietSchedule}.
      */
     public static boolean isQuietHoursActive(Context context) {
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-
-        // Check if quiet hours are enabled
-        boolean enabled = prefs.getBoolean(KEY_ENABLED, false);
-        if (!enabled) {
-            Log.d(TAG, "Quiet hours disabled");
-            return false;
-        }
-
-        // Get current time info
-        Calendar now = Calendar.getInstance();
-        int currentDayOfWeek = now.get(Calendar.DAY_OF_WEEK); // 1=Sunday, 2=Monday, ..., 7=Saturday
-        int currentHour = now.get(Calendar.HOUR_OF_DAY);
-        int currentMinute = now.get(Calendar.MINUTE);
-
-        // Check if today is a quiet hours day
-        // We store days as 0-6 (Mon-Sun), Calendar uses 1-7 (Sun-Sat)
-        // Convert: Calendar Sunday(1) -> our 6, Monday(2) -> our 0, etc.
-        int ourDayIndex = (currentDayOfWeek == Calendar.SUNDAY) ? 6 : currentDayOfWeek - 2;
+        return getSchedule(context).isActiveAt(AlarmEnvironment.now());
+    }
 
-        String daysStr = prefs.getString(KEY_DAYS, "");
-        if (daysStr.isEmpty()) {
-            Log.d(TAG, "No days configured");
+    /**
+     * Check if the given task type should bypass quiet hours.
+     * A per-type "deliver" rule bypasses; otherwise only "safetyCritical" tasks
+     * can bypass if the exception is enabled.
+     */
+    public static boolean shouldBypassQuietHours(Context context, String taskType) {
+        if (taskType == null) {
             return false;
         }
 
-        String[] days = daysStr.split(",");
-        boolean isTodaySelected = false;
-        for (String day : days) {
-            try {
-                if (Integer.parseInt(day.trim()) == ourDayIndex) {
-                    isTodaySelected = true;
-                    break;
-                }
-            } catch (NumberFormatException e) {
-                // Skip invalid entries
-            }
-        }
-
-        if (!isTodaySelected) {
-            Log.d(TAG, "Today is not a quiet hours day");
-            return false;
-        }
-
-        // Check time range
-        int startHour = prefs.getInt(KEY_START_HOUR, 22);
-        int startMinute = prefs.getInt(KEY_START_MINUTE, 0);
-        int endHour = prefs.getInt(KEY_END_HOUR, 7);
-        int endMinute = prefs.getInt(KEY_END_MINUTE, 0);
-
-        int currentMinutes = currentHour * 60 + currentMinute;
-        int startMinutes = startHour * 60 + startMinute;
-        int endMinutes = endHour * 60 + endMinute;
-
-        boolean isInQuietHours;
-
-        if (startMinutes <= endMinutes) {
-            // Same day range (e.g., 09:00 - 17:00)
-            isInQuietHours = currentMinutes >= startMinutes && currentMinutes < endMinutes;
-        } else {
-            // Overnight range (e.g., 22:00 - 07:00)
-            isInQuietHours = currentMinutes >= startMinutes || currentMinutes < endMinutes;
+        QuietSchedule current = getSchedule(context);
+        long now = AlarmEnvironment.now();
+        if (!current.isActiveAt(now)) {
+            // Bypass only has meaning inside quiet hours; answer for the rules alone.
+            return "safetyCritical".equals(taskType) && current.isExceptionSafetyCritical();
         }
+        return current.policyFor(taskType, now) == QuietSchedule.POLICY_DELIVER;
+    }
 
-        Log.d(TAG, "Quiet hours active: " + isInQuietHours +
-                " (current: " + currentHour + ":" + currentMinute +
-                ", range: " + startHour + ":" + startMinute + " - " + endHour + ":" + endMinute + ")");
+    /**
+     * Resolve what should happen to a reminder of {@code taskType} firing now:
+     * one of the {@code QuietSchedule.POLICY_*} constants.
+     */
+    public static int resolvePolicy(Context context, String taskType) {
+        return getSchedule(context).policyFor(taskType, AlarmEnvironment.now());
+    }
 
-        return isInQuietHours;
+    /**
+     * When the quiet period covering {@code epochMillis} ends, or -1 if it never does.
+     */
+    public static long nextQuietEnd(Context context, long epochMillis) {
+        return getSchedule(context).nextQuietEnd(epochMillis);
     }
 
     /**
-     * Check if the given task type should bypass quiet hours.
-     * Currently only "safetyCritical" tasks can bypass if the exception is enabled.
+     * The compiled quiet hours schedule, loading it from SharedPreferences on first use.
      */
-    public static boolean shouldBypassQuietHours(Context context, String taskType) {
-        if (taskType == null) {
-            return false;
+    public static QuietSchedule getSchedule(Context context) {
+        QuietSchedule current = schedule;
+        if (current == null) {
+            current = compile(context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+            schedule = current;
         }
+        return current;
+    }
 
-        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-
-        if ("safetyCritical".equals(taskType)) {
-            boolean exceptionEnabled = prefs.getBoolean(KEY_EXCEPTION_SAFETY_CRITICAL, true);
-            Log.d(TAG, "SafetyCritical task, exception enabled: " + exceptionEnabled);
-            return exceptionEnabled;
+    private static QuietSchedule compile(SharedPreferences prefs) {
+        List<QuietSchedule.Window> windows = new ArrayList<>();
+        try {
+            windows.add(new QuietSchedule.Window(
+                    prefs.getString(KEY_DAYS, ""),
+                    prefs.getInt(KEY_START_HOUR, 22),
+                    prefs.getInt(KEY_START_MINUTE, 0),
+                    prefs.getInt(KEY_END_HOUR, 7),
+                    prefs.getInt(KEY_END_MINUTE, 0)));
+        } catch (IllegalArgumentException e) {
+            // Saved before times were validated; ignore it rather than break every delivery.
+            AlarmLog.e(TAG, "Skipping invalid quiet hours window", e);
         }
+        windows.addAll(decodeWindows(prefs.getString(KEY_EXTRA_WINDOWS, "")));
+        return QuietSchedule.compile(
+                prefs.getBoolean(KEY_ENABLED, false),
+                windows,
+                decodePolicies(prefs.getString(KEY_POLICIES, "")),
+                prefs.getBoolean(KEY_EXCEPTION_SAFETY_CRITICAL, true),
+                TimeZone.getDefault());
+    }
 
-        return false;
+    /**
+     * Drop the compiled schedule, e.g. after the device time zone changed.
+     */
+    public static void invalidate() {
+        schedule = null;
     }
 
     /**
      * Save quiet hours settings to SharedPreferences.
+     *
+     * @throws IllegalArgumentException if an hour is outside 0-23 or a minute outside 0-59;
+     *                                  nothing is saved then
      */
     public static void saveSettings(
             Context context,
@@ -135,6 +138,8 @@ public class QuietHoursHelper {
             String days,
             boolean exceptionSafetyCritical) {
 
+        new QuietSchedule.Window(days, startHour, startMinute, endHour, endMinute);
+
         SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
         SharedPreferences.Editor editor = prefs.edit();
 
@@ -148,9 +153,11 @@ public class QuietHoursHelper {
 
         editor.apply();
 
-        Log.d(TAG, "Quiet hours settings saved: enabled=" + enabled +
-                ", time=" + startHour + ":" + startMinute + "-" + endHour + ":" + endMinute +
-                ", days=" + days + ", safetyException=" + exceptionSafetyCritical);
+        schedule = compile(prefs);
+
+        AlarmLog.d(TAG, "Quiet hours settings saved: enabled={} safetyException={}",
+                enabled ? 1 : 0, exceptionSafetyCritical ? 1 : 0);
+        AlarmLog.d(TAG, "Quiet hours window {}:{}-{}:{} on days {}", startHour, startMinute, endHour, endMinute, days);
     }
 
     /**
@@ -171,4 +178,115 @@ public class QuietHoursHelper {
 
         return settings;
     }
+
+    /**
+     * Save the additional quiet windows and per-task-type policies.
+     * They apply while quiet hours are enabled via {@link #saveSettings}.
+     * The windows were range-checked when they were built, so nothing saved
+     * here can fail to compile later.
+     */
+    public static void saveRules(Context context, List<QuietSchedule.Window> windows, Map<String, Integer> policies) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        prefs.edit()
+                .putString(KEY_EXTRA_WINDOWS, encodeWindows(windows))
+                .putString(KEY_POLICIES, encodePolicies(policies))
+                .apply();
+
+        schedule = compile(prefs);
+
+        AlarmLog.d(TAG, "Quiet hours rules saved: {} extra windows, {} policies", windows.size(), policies.size());
+    }
+
+    /**
+     * Get the additional windows and policies as a Map for Flutter:
+     * {@code windows} is a list of maps with days/startHour/startMinute/endHour/endMinute,
+     * {@code policies} maps task type to "deliver", "silent", "suppress" or "defer".
+     */
+    public static HashMap<String, Object> getRules(Context context) {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        ArrayList<HashMap<String, Object>> windows = new ArrayList<>();
+        for (QuietSchedule.Window window : decodeWindows(prefs.getString(KEY_EXTRA_WINDOWS, ""))) {
+            HashMap<String, Object> map = new HashMap<>();
+            map.put("days", window.days);
+            map.put("startHour", window.startHour);
+            map.put("startMinute", window.startMinute);
+            map.put("endHour", window.endHour);
+            map.put("endMinute", window.endMinute);
+            windows.add(map);
+        }
+
+        HashMap<String, Object> policies = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : decodePolicies(prefs.getString(KEY_POLICIES, "")).entrySet()) {
+            policies.put(entry.getKey(), QuietSchedule.policyName(entry.getValue()));
+        }
+
+        HashMap<String, Object> rules = new HashMap<>();
+        rules.put("windows", windows);
+        rules.put("policies", policies);
+        return rules;
+    }
+
+    private static String encodeWindows(List<QuietSchedule.Window> windows) {
+        StringBuilder sb = new StringBuilder();
+        for (QuietSchedule.Window window : windows) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(window.days).append('@')
+                    .append(window.startHour).append(':').append(window.startMinute).append('-')
+                    .append(window.endHour).append(':').append(window.endMinute);
+        }
+        return sb.toString();
+    }
+
+    private static List<QuietSchedule.Window> decodeWindows(String encoded) {
+        List<QuietSchedule.Window> windows = new ArrayList<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return windows;
+        }
+        for (String item : encoded.split(";")) {
+            try {
+                int at = item.indexOf('@');
+                String[] range = item.substring(at + 1).split("-");
+                String[] start = range[0].split(":");
+                String[] end = range[1].split(":");
+                windows.add(new QuietSchedule.Window(
+                        item.substring(0, at),
+                        Integer.parseInt(start[0]), Integer.parseInt(start[1]),
+                        Integer.parseInt(end[0]), Integer.parseInt(end[1])));
+            } catch (RuntimeException e) {
+                AlarmLog.e(TAG, "Skipping invalid quiet window: {}", item);
+            }
+        }
+        return windows;
+    }
+
+    private static String encodePolicies(Map<String, Integer> policies) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : policies.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(';');
+            }
+            sb.append(entry.getKey()).append('=').append(QuietSchedule.policyName(entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static Map<String, Integer> decodePolicies(String encoded) {
+        Map<String, Integer> policies = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return policies;
+        }
+        for (String item : encoded.split(";")) {
+            int eq = item.indexOf('=');
+            int policy = eq > 0 ? QuietSchedule.parsePolicy(item.substring(eq + 1)) : -1;
+            if (policy < 0) {
+                AlarmLog.e(TAG, "Skipping invalid quiet hours policy: {}", item);
+                continue;
+            }
+            policies.put(item.substring(0, eq), policy);
+        }
+        return policies;
+    }
 }
@@ -0,0 +1,262 @@
+package com.example.reminder_app;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Immutable, precompiled form of the quiet hours settings.
+ *
+ * All quiet windows are flattened into one bitmap with one bit per minute of
+ * the week (7 * 1440 bits), so answering "is it quiet now?" is a time zone
+ * offset lookup, two divisions and one bit test, with no allocation, however
+ * many windows are configured. What happens to a reminder during quiet hours
+ * is a per-task-type policy looked up in a map.
+ */
+public final class QuietSchedule {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    // 1970-01-01 was a Thursday; with Monday as day 0 that is day 3.
+    private static final int EPOCH_DAY_OF_WEEK = 3;
+
+    /** Ring and notify as usual. */
+    public static final int POLICY_DELIVER = 0;
+    /** Post the notification without sound, vibration or full-screen intent. */
+    public static final int POLICY_SILENT = 1;
+    /** Drop the reminder. */
+    public static final int POLICY_SUPPRESS = 2;
+    /** Hold the reminder and deliver it when quiet hours end. */
+    public static final int POLICY_DEFER = 3;
+
+    private static final String[] POLICY_NAMES = {"deliver", "silent", "suppress", "defer"};
+
+    /**
+     * One quiet window: a start/end time of day applied to a set of days.
+     * An end before the start wraps past midnight.
+     */
+    public static final class Window {
+        public final String days;
+        public final int startHour;
+        public final int startMinute;
+        public final int endHour;
+        public final int endMinute;
+
+        /**
+         * @param days comma-separated day indexes, 0 = Monday ... 6 = Sunday
+         * @throws IllegalArgumentException if an hour is outside 0-23 or a minute outside 0-59
+         */
+        public Window(String days, int startHour, int startMinute, int endHour, int endMinute) {
+            checkTime("start", startHour, startMinute);
+            checkTime("end", endHour, endMinute);
+            this.days = days;
+            this.startHour = startHour;
+            this.startMinute = startMinute;
+            this.endHour = endHour;
+            this.endMinute = endMinute;
+        }
+
+        private static void checkTime(String name, int hour, int minute) {
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+                throw new IllegalArgumentException(
+                        "Invalid quiet hours " + name + " time " + hour + ":" + minute);
+            }
+        }
+    }
+
+    private final boolean enabled;
+    private final long[] weekBits;
+    private final boolean exceptionSafetyCritical;
+    private final Map<String, Integer> policies;
+    private final TimeZone timeZone;
+
+    private QuietSchedule(boolean enabled, long[] weekBits, boolean exceptionSafetyCritical,
+            Map<String, Integer> policies, TimeZone timeZone) {
+        this.enabled = enabled;
+        this.weekBits = weekBits;
+        this.exceptionSafetyCritical = exceptionSafetyCritical;
+        this.policies = policies;
+        this.timeZone = timeZone;
+    }
+
+    /**
+     * Compile the single window stored by {@link QuietHoursHelper#saveSettings}.
+     *
+     * @param days comma-separated day indexes, 0 = Monday ... 6 = Sunday
+     */
+    public static QuietSchedule compile(
+            boolean enabled,
+            int startHour,
+            int startMinute,
+            int endHour,
+            int endMinute,
+            String days,
+            boolean exceptionSafetyCritical,
+            TimeZone timeZone) {
+        return compile(enabled,
+                Collections.singletonList(new Window(days, startHour, startMinute, endHour, endMinute)),
+                Collections.<String, Integer>emptyMap(), exceptionSafetyCritical, timeZone);
+    }
+
+    /**
+     * Compile any number of windows plus per-task-type policies into one schedule.
+     */
+    public static QuietSchedule compile(
+            boolean enabled,
+            List<Window> windows,
+            Map<String, Integer> policies,
+            boolean exceptionSafetyCritical,
+            TimeZone timeZone) {
+
+        Map<String, Integer> policyCopy = Collections.unmodifiableMap(new HashMap<>(policies));
+        long[] bits = new long[(MINUTES_PER_WEEK + 63) / 64];
+        boolean any = false;
+        for (Window window : windows) {
+            any |= addWindow(bits, window);
+        }
+        if (!enabled || !any) {
+            return new QuietSchedule(false, new long[0], exceptionSafetyCritical, policyCopy, timeZone);
+        }
+        return new QuietSchedule(true, bits, exceptionSafetyCritical, policyCopy, timeZone);
+    }
+
+    private static boolean addWindow(long[] bits, Window window) {
+        int dayMask = parseDays(window.days);
+        if (dayMask == 0) {
+            return false;
+        }
+        int start = window.startHour * 60 + window.startMinute;
+        int end = window.endHour * 60 + window.endMinute;
+        for (int day = 0; day < 7; day++) {
+            if ((dayMask & (1 << day)) == 0) {
+                continue;
+            }
+            int base = day * MINUTES_PER_DAY;
+            if (start <= end) {
+                // Same day range (e.g., 09:00 - 17:00)
+                setRange(bits, base + start, base + end);
+            } else {
+                // Overnight range (e.g., 22:00 - 07:00): both ends belong to the selected day
+                setRange(bits, base, base + end);
+                setRange(bits, base + start, base + MINUTES_PER_DAY);
+            }
+        }
+        return start != end;
+    }
+
+    public static String policyName(int policy) {
+        return POLICY_NAMES[policy];
+    }
+
+    /**
+     * @return the policy constant for {@code name}, or -1 if it is not a known policy
+     */
+    public static int parsePolicy(String name) {
+        for (int i = 0; i < POLICY_NAMES.length; i++) {
+            if (POLICY_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * What to do with a reminder of {@code taskType} firing at {@code epochMillis}.
+     * Outside quiet hours this is always {@link #POLICY_DELIVER}. Inside, an explicit
+     * per-type rule wins; otherwise safety-critical tasks follow the legacy exception
+     * switch and everything else is deferred until quiet hours end.
+     */
+    public int policyFor(String taskType, long epochMillis) {
+        if (!isActiveAt(epochMillis)) {
+            return POLICY_DELIVER;
+        }
+        Integer policy = taskType != null ? policies.get(taskType) : null;
+        if (policy != null) {
+            return policy;
+        }
+        if ("safetyCritical".equals(taskType) && exceptionSafetyCritical) {
+            return POLICY_DELIVER;
+        }
+        return POLICY_DEFER;
+    }
+
+    /**
+     * First instant at or after {@code epochMillis} that is outside quiet hours,
+     * truncated to the minute; {@code epochMillis} itself if it is not quiet.
+     * Returns -1 if quiet hours cover the entire week.
+     */
+    public long nextQuietEnd(long epochMillis) {
+        if (!isActiveAt(epochMillis)) {
+            return epochMillis;
+        }
+        int minute = minuteOfWeek(epochMillis);
+        for (int offset = 1; offset <= MINUTES_PER_WEEK; offset++) {
+            int candidate = (minute + offset) % MINUTES_PER_WEEK;
+            if (!isQuietMinute(candidate)) {
+                long minuteStart = epochMillis - Math.floorMod(epochMillis, MILLIS_PER_MINUTE);
+                return minuteStart + offset * MILLIS_PER_MINUTE;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isExceptionSafetyCritical() {
+        return exceptionSafetyCritical;
+    }
+
+    /**
+     * Whether quiet hours are in effect at the given wall-clock instant.
+     */
+    public boolean isActiveAt(long epochMillis) {
+        if (!enabled) {
+            return false;
+        }
+        return isQuietMinute(minuteOfWeek(epochMillis));
+    }
+
+    /**
+     * Whether the given minute of the week (0 = Monday 00:00) is quiet.
+     */
+    public boolean isQuietMinute(int minuteOfWeek) {
+        return enabled && (weekBits[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    int minuteOfWeek(long epochMillis) {
+        long localMinutes = Math.floorDiv(epochMillis + timeZone.getOffset(epochMillis), MILLIS_PER_MINUTE);
+        long epochDay = Math.floorDiv(localMinutes, MINUTES_PER_DAY);
+        int dayOfWeek = Math.floorMod(epochDay + EPOCH_DAY_OF_WEEK, 7);
+        int minuteOfDay = (int) (localMinutes - epochDay * MINUTES_PER_DAY);
+        return dayOfWeek * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int minute = from; minute < to; minute++) {
+            bits[minute >>> 6] |= 1L << minute;
+        }
+    }
+
+    private static int parseDays(String days) {
+        if (days == null || days.isEmpty()) {
+            return 0;
+        }
+        int mask = 0;
+        for (String day : days.split(",")) {
+            try {
+                int index = Integer.parseInt(day.trim());
+                if (index >= 0 && index < 7) {
+                    mask |= 1 << index;
+                }
+            } catch (NumberFormatException e) {
+                // Skip invalid entries
+            }
+        }
+        return mask;
+    }
+}
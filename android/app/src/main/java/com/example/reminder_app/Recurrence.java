@@ -0,0 +1,305 @@
+package com.example.reminder_app;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Repeat rule for a reminder, written as a subset of iCalendar RRULE:
+ * <pre>
+ *   FREQ=HOURLY|DAILY|WEEKLY|MONTHLY   (required)
+ *   INTERVAL=n                         every n hours/days/weeks/months, default 1
+ *   BYDAY=MO,WE,FR                     WEEKLY only, default the start's weekday
+ *   BYMONTHDAY=d                       MONTHLY only, 1..31 or -1..-31 from the month end;
+ *                                      default the start's day, months without it are skipped
+ *   UNTIL=yyyyMMddTHHmmssZ             no occurrence after this UTC instant
+ *   DTSTART=yyyyMMddTHHmmss            first occurrence, in local wall-clock time
+ * </pre>
+ *
+ * DTSTART is floating local time, so a "07:00 every day" reminder stays at
+ * 07:00 across DST changes and after the device moves to another time zone.
+ * Hourly rules count elapsed time instead. A local time that falls in a DST gap
+ * moves forward by the gap length, as {@link java.time.ZonedDateTime#of} does.
+ *
+ * Every occurrence is computed directly from DTSTART, so stepping to the next
+ * one is a constant amount of work however long the series has been running.
+ */
+public final class Recurrence {
+
+    public static final int HOURLY = 0;
+    public static final int DAILY = 1;
+    public static final int WEEKLY = 2;
+    public static final int MONTHLY = 3;
+
+    private static final String[] FREQ_NAMES = {"HOURLY", "DAILY", "WEEKLY", "MONTHLY"};
+    private static final String[] DAY_NAMES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+
+    private static final DateTimeFormatter LOCAL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    // Months to look ahead for a BYMONTHDAY that exists, e.g. the 31st after February.
+    private static final int MAX_MONTH_SEARCH = 48;
+
+    private final int frequency;
+    private final int interval;
+    private final int dayMask;
+    private final int monthDay;
+    private final long untilMillis;
+    private final LocalDateTime start;
+
+    private Recurrence(int frequency, int interval, int dayMask, int monthDay, long untilMillis, LocalDateTime start) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.dayMask = dayMask;
+        this.monthDay = monthDay;
+        this.untilMillis = untilMillis;
+        this.start = start;
+    }
+
+    /**
+     * Parse {@code rule}. Without a DTSTART the series starts at {@code anchorMillis} in {@code zone}.
+     *
+     * @throws IllegalArgumentException if the rule is malformed or uses unsupported parts
+     */
+    public static Recurrence parse(String rule, long anchorMillis, ZoneId zone) {
+        int frequency = -1;
+        int interval = 1;
+        int dayMask = 0;
+        int monthDay = 0;
+        long until = Long.MAX_VALUE;
+        LocalDateTime start = null;
+
+        for (String part : rule.split(";")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            int eq = part.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Malformed recurrence part: " + part);
+            }
+            String key = part.substring(0, eq).trim().toUpperCase();
+            String value = part.substring(eq + 1).trim().toUpperCase();
+            try {
+                switch (key) {
+                    case "FREQ":
+                        frequency = indexOf(FREQ_NAMES, value);
+                        if (frequency < 0) {
+                            throw new IllegalArgumentException("Unsupported FREQ: " + value);
+                        }
+                        break;
+                    case "INTERVAL":
+                        interval = Integer.parseInt(value);
+                        if (interval < 1) {
+                            throw new IllegalArgumentException("INTERVAL must be positive: " + value);
+                        }
+                        break;
+                    case "BYDAY":
+                        for (String day : value.split(",")) {
+                            int index = indexOf(DAY_NAMES, day.trim());
+                            if (index < 0) {
+                                throw new IllegalArgumentException("Unsupported BYDAY: " + day);
+                            }
+                            dayMask |= 1 << index;
+                        }
+                        break;
+                    case "BYMONTHDAY":
+                        monthDay = Integer.parseInt(value);
+                        if (monthDay == 0 || monthDay < -31 || monthDay > 31) {
+                            throw new IllegalArgumentException("BYMONTHDAY out of range: " + value);
+                        }
+                        break;
+                    case "UNTIL":
+                        until = LocalDateTime.parse(value, UTC_FORMAT).toInstant(ZoneOffset.UTC).toEpochMilli();
+                        break;
+                    case "DTSTART":
+                        start = LocalDateTime.parse(value, LOCAL_FORMAT);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unsupported recurrence part: " + key);
+                }
+            } catch (NumberFormatException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed recurrence part: " + part, e);
+            }
+        }
+
+        if (frequency < 0) {
+            throw new IllegalArgumentException("Recurrence needs FREQ: " + rule);
+        }
+        if (start == null) {
+            start = LocalDateTime.ofInstant(Instant.ofEpochMilli(anchorMillis), zone).truncatedTo(ChronoUnit.SECONDS);
+        }
+        if (frequency == WEEKLY && dayMask == 0) {
+            dayMask = 1 << (start.getDayOfWeek().getValue() - 1);
+        }
+        if (frequency == MONTHLY && monthDay == 0) {
+            monthDay = start.getDayOfMonth();
+        }
+        return new Recurrence(frequency, interval, dayMask, monthDay, until, start);
+    }
+
+    /**
+     * First occurrence strictly after {@code afterMillis}, or -1 if the series has ended.
+     */
+    public long nextAfter(long afterMillis, ZoneId zone) {
+        long next;
+        switch (frequency) {
+            case HOURLY:
+                next = nextHourly(afterMillis, zone);
+                break;
+            case DAILY:
+                next = nextDaily(afterMillis, zone);
+                break;
+            case WEEKLY:
+                next = nextWeekly(afterMillis, zone);
+                break;
+            default:
+                next = nextMonthly(afterMillis, zone);
+                break;
+        }
+        return next > untilMillis ? -1 : next;
+    }
+
+    /**
+     * The rule in canonical form, always including DTSTART, so it can be stored
+     * and later parsed without the original anchor.
+     */
+    public String toRule() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(FREQ_NAMES[frequency]);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        if (frequency == WEEKLY) {
+            rule.append(";BYDAY=");
+            boolean first = true;
+            for (int day = 0; day < 7; day++) {
+                if ((dayMask & (1 << day)) != 0) {
+                    rule.append(first ? "" : ",").append(DAY_NAMES[day]);
+                    first = false;
+                }
+            }
+        }
+        if (frequency == MONTHLY) {
+            rule.append(";BYMONTHDAY=").append(monthDay);
+        }
+        if (untilMillis != Long.MAX_VALUE) {
+            rule.append(";UNTIL=").append(UTC_FORMAT.format(
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(untilMillis), ZoneOffset.UTC)));
+        }
+        return rule.append(";DTSTART=").append(LOCAL_FORMAT.format(start)).toString();
+    }
+
+    private long nextHourly(long afterMillis, ZoneId zone) {
+        long first = toMillis(start, zone);
+        if (afterMillis < first) {
+            return first;
+        }
+        long step = interval * 3_600_000L;
+        return first + ((afterMillis - first) / step + 1) * step;
+    }
+
+    private long nextDaily(long afterMillis, ZoneId zone) {
+        LocalDate startDate = start.toLocalDate();
+        LocalDate date = localDate(afterMillis, zone);
+        if (date.isBefore(startDate)) {
+            date = startDate;
+        }
+        long days = ChronoUnit.DAYS.between(startDate, date);
+        date = startDate.plusDays(ceilToMultiple(days, interval));
+        long next = toMillis(date, zone);
+        if (next <= afterMillis) {
+            next = toMillis(date.plusDays(interval), zone);
+        }
+        return next;
+    }
+
+    private long nextWeekly(long afterMillis, ZoneId zone) {
+        LocalDate startDate = start.toLocalDate();
+        LocalDate startWeek = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate date = localDate(afterMillis, zone);
+        if (date.isBefore(startDate)) {
+            date = startDate;
+        }
+        // Jump to the first matching week at or after the candidate's week.
+        LocalDate week = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        long weeks = ChronoUnit.WEEKS.between(startWeek, week);
+        long aligned = ceilToMultiple(weeks, interval);
+        if (aligned != weeks) {
+            week = startWeek.plusWeeks(aligned);
+            date = week;
+        }
+        // Scan the rest of this week, then the first day of the next matching one.
+        for (int i = 0; i < 14; i++) {
+            int dow = date.getDayOfWeek().getValue() - 1;
+            if ((dayMask & (1 << dow)) != 0 && !date.isBefore(startDate)) {
+                long next = toMillis(date, zone);
+                if (next > afterMillis) {
+                    return next;
+                }
+            }
+            date = date.plusDays(1);
+            if (date.getDayOfWeek() == DayOfWeek.MONDAY) {
+                week = week.plusWeeks(interval);
+                date = week;
+            }
+        }
+        return -1;
+    }
+
+    private long nextMonthly(long afterMillis, ZoneId zone) {
+        YearMonth startMonth = YearMonth.from(start);
+        YearMonth month = YearMonth.from(localDate(afterMillis, zone));
+        if (month.isBefore(startMonth)) {
+            month = startMonth;
+        }
+        long months = ChronoUnit.MONTHS.between(startMonth, month);
+        month = startMonth.plusMonths(ceilToMultiple(months, interval));
+        for (int i = 0; i < MAX_MONTH_SEARCH; i++) {
+            int length = month.lengthOfMonth();
+            int day = monthDay > 0 ? monthDay : length + monthDay + 1;
+            if (day >= 1 && day <= length) {
+                LocalDate date = month.atDay(day);
+                if (!date.isBefore(start.toLocalDate())) {
+                    long next = toMillis(date, zone);
+                    if (next > afterMillis) {
+                        return next;
+                    }
+                }
+            }
+            month = month.plusMonths(interval);
+        }
+        return -1;
+    }
+
+    private long toMillis(LocalDate date, ZoneId zone) {
+        return toMillis(LocalDateTime.of(date, start.toLocalTime()), zone);
+    }
+
+    private static long toMillis(LocalDateTime dateTime, ZoneId zone) {
+        return dateTime.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private static LocalDate localDate(long epochMillis, ZoneId zone) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone).toLocalDate();
+    }
+
+    private static long ceilToMultiple(long value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+
+    private static int indexOf(String[] names, String value) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.reminder_app;
+
+import android.app.Application;
+import android.content.Context;
+import io.flutter.FlutterInjector;
+import io.flutter.embedding.engine.FlutterEngine;
+import io.flutter.embedding.engine.FlutterEngineCache;
+import io.flutter.embedding.engine.dart.DartExecutor;
+
+/**
+ * Owns the process-wide Flutter engines, kept in {@link FlutterEngineCache}:
+ * <ul>
+ *   <li>{@link #UI_ENGINE_ID}, the app's UI, warmed up behind the alarm screen
+ *       and attached to by {@link MainActivity};</li>
+ *   <li>{@link #BACKGROUND_ENGINE_ID}, a headless engine running
+ *       {@link #BACKGROUND_ENTRYPOINT}, which receives {@link AlarmEvents}
+ *       without any activity.</li>
+ * </ul>
+ * Both are created lazily on the main thread, so an alarm broadcast that never
+ * needs Dart does not pay for an engine.
+ */
+public class ReminderApplication extends Application {
+
+    private static final String TAG = "ReminderApplication";
+
+    static final String UI_ENGINE_ID = "reminder_engine";
+    static final String BACKGROUND_ENGINE_ID = "alarm_background_engine";
+
+    static final String BACKGROUND_LIBRARY = "package:reminder_app/services/alarm_event_dispatcher.dart";
+    static final String BACKGROUND_ENTRYPOINT = "alarmEventMain";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Opening the trace files maps and reads them, and preparing the alarm
+        // sound opens the sound file; keep both off the main thread, which an
+        // alarm broadcast may be waiting on. The sound is ready before any
+        // alarm acquires it, instead of being prepared as the ring starts.
+        Context context = this;
+        new Thread(() -> {
+            AlarmLog.init(context);
+            AlarmEnvironment.sound(context).prewarm();
+        }, "AlarmStartup").start();
+    }
+
+    /**
+     * Start the UI engine ahead of MainActivity, so opening the app from
+     * {@link AlarmActivity} attaches to an engine that is already running Dart
+     * instead of cold starting one after the transition. Main thread only; a
+     * no-op once cached.
+     */
+    static void warmUpUiEngine(Context context) {
+        FlutterEngineCache cache = FlutterEngineCache.getInstance();
+        if (cache.contains(UI_ENGINE_ID)) {
+            return;
+        }
+        FlutterEngine engine = new FlutterEngine(context.getApplicationContext());
+        engine.getDartExecutor().executeDartEntrypoint(DartExecutor.DartEntrypoint.createDefault());
+        cache.put(UI_ENGINE_ID, engine);
+    }
+
+    /**
+     * The headless engine for native-to-Dart callbacks, started on first use.
+     * Main thread only.
+     */
+    static FlutterEngine backgroundEngine(Context context) {
+        FlutterEngineCache cache = FlutterEngineCache.getInstance();
+        FlutterEngine engine = cache.get(BACKGROUND_ENGINE_ID);
+        if (engine == null) {
+            long start = System.nanoTime();
+            engine = new FlutterEngine(context.getApplicationContext());
+            String bundlePath = FlutterInjector.instance().flutterLoader().findAppBundlePath();
+            engine.getDartExecutor().executeDartEntrypoint(
+                    new DartExecutor.DartEntrypoint(bundlePath, BACKGROUND_LIBRARY, BACKGROUND_ENTRYPOINT));
+            cache.put(BACKGROUND_ENGINE_ID, engine);
+            AlarmLog.d(TAG, "Background engine started in {}us", (System.nanoTime() - start) / 1000);
+        }
+        return engine;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.reminder_app;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Durable set of pending reminders, keyed by id. {@link AlarmStore} is the
+ * on-device implementation.
+ */
+public interface ReminderStore {
+
+    /** The pending reminder with {@code id}, or null. */
+    AlarmEntry get(int id);
+
+    /** Snapshot of every pending reminder. */
+    List<AlarmEntry> all();
+
+    int size();
+
+    /** Add or replace the reminder with {@code entry.id}. */
+    void put(AlarmEntry entry);
+
+    void remove(int id);
+
+    /** Apply several puts and removes as one write. */
+    void update(Collection<AlarmEntry> puts, Collection<Integer> removes);
+}
@@ -3,38 +3,48 @@ package com.example.reminder_app;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.app.NotificationManager;
-import android.app.AlarmManager;
-import android.app.PendingIntent;
+import androidx.annotation.VisibleForTesting;
 
 public class SnoozeReceiver extends BroadcastReceiver {
 
+    private static final String TAG = "SnoozeReceiver";
+
     @Override
     public void onReceive(Context context, Intent intent) {
-        // Stop the current alarm
-        Intent serviceIntent = new Intent(context, AlarmService.class);
-        context.stopService(serviceIntent);
-
-        // Cancel current notification
-        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
-        manager.cancel(99);
-
-        // Reschedule alarm after 5 minutes
-        long snoozeTime = System.currentTimeMillis() + 1 * 60 * 1000; // 1 minutes
-        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        // Store and AlarmManager work stays off the main thread.
+        AlarmReceiver.WORKER.execute(() -> {
+            try {
+                AlarmLog.init(appContext);
+                handle(appContext, intent);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
 
-        Intent alarmIntent = new Intent(context, AlarmReceiver.class);
-        alarmIntent.putExtra("title", "Wake Up!");
-        alarmIntent.putExtra("body", "Snoozed Alarm");
+    @VisibleForTesting
+    void handle(Context context, Intent intent) {
+        int id = intent.getIntExtra("id", -1);
+        if (id == -1) {
+            // Notification posted before actions carried an id: nothing to reschedule
+            AlarmSessions.stopAll(context);
+            return;
+        }
 
-        PendingIntent pendingIntent = PendingIntent.getBroadcast(
-                context, 0, alarmIntent, PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+        // Stop the current alarm and cancel its notification, keeping its payload
+        AlarmEntry entry = AlarmSessions.payload(context, id);
+        AlarmSessions.stop(context, id);
+        if (entry == null) {
+            AlarmLog.w(TAG, "No payload for alarm {}, not snoozing", id);
+            return;
+        }
 
-        if (alarmManager != null) {
-            alarmManager.setExactAndAllowWhileIdle(
-                    AlarmManager.RTC_WAKEUP,
-                    snoozeTime,
-                    pendingIntent);
+        // Reschedule the same reminder after the configured snooze interval
+        if (AlarmSnooze.snooze(context, entry) >= 0) {
+            AlarmMetrics.increment(context, AlarmMetrics.SNOOZED);
+            AlarmEvents.post(context, AlarmEvents.SNOOZED, id);
         }
     }
 }
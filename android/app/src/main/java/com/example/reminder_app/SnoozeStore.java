@@ -0,0 +1,158 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+
+/**
+ * Snooze chain per reminder, kept as fixed-size slots in one small file.
+ *
+ * Every slot is {@value #SLOT_SIZE} bytes:
+ * <pre>
+ *   int  id
+ *   int  count         (snoozes so far in the current chain; 0 = free slot)
+ *   long snoozedUntil  (epoch millis of the pending snoozed fire)
+ * </pre>
+ * An id maps to the same slot for its whole life, so recording another snooze
+ * rewrites those 16 bytes in place instead of re-serialising anything. Slots
+ * freed by {@link #clear} are reused by the next new chain.
+ */
+public class SnoozeStore {
+
+    private static final String TAG = "SnoozeStore";
+    private static final String FILE_NAME = "snooze_records.bin";
+
+    static final int SLOT_SIZE = 16;
+
+    private static SnoozeStore instance;
+
+    /**
+     * Snooze state of one reminder.
+     */
+    public static final class Record {
+        public final int count;
+        public final long snoozedUntil;
+
+        Record(int count, long snoozedUntil) {
+            this.count = count;
+            this.snoozedUntil = snoozedUntil;
+        }
+    }
+
+    private final File file;
+    private final HashMap<Integer, Integer> slots = new HashMap<>();
+    private final HashMap<Integer, Record> records = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private final ByteBuffer slotBuffer = ByteBuffer.allocate(SLOT_SIZE);
+    private int slotCount;
+    private boolean loaded;
+
+    public static synchronized SnoozeStore get(Context context) {
+        if (instance == null) {
+            instance = new SnoozeStore(new File(context.getFilesDir(), FILE_NAME));
+        }
+        return instance;
+    }
+
+    public SnoozeStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the current chain for {@code id}, or null if it has not been snoozed
+     */
+    public synchronized Record get(int id) {
+        ensureLoaded();
+        return records.get(id);
+    }
+
+    public synchronized int size() {
+        ensureLoaded();
+        return records.size();
+    }
+
+    /**
+     * Store the chain state for {@code id}, reusing its slot if it has one.
+     */
+    public synchronized void put(int id, int count, long snoozedUntil) {
+        ensureLoaded();
+        Integer slot = slots.get(id);
+        if (slot == null) {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.poll();
+            slots.put(id, slot);
+        }
+        records.put(id, new Record(count, snoozedUntil));
+        writeSlot(slot, id, count, snoozedUntil);
+    }
+
+    /**
+     * End the chain for {@code id} and free its slot.
+     */
+    public synchronized void clear(int id) {
+        ensureLoaded();
+        Integer slot = slots.remove(id);
+        if (slot == null) {
+            return;
+        }
+        records.remove(id);
+        freeSlots.add(slot);
+        writeSlot(slot, 0, 0, 0);
+    }
+
+    private void writeSlot(int slot, int id, int count, long snoozedUntil) {
+        slotBuffer.clear();
+        slotBuffer.putInt(id).putInt(count).putLong(snoozedUntil).flip();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel channel = raf.getChannel();
+            long position = (long) slot * SLOT_SIZE;
+            while (slotBuffer.hasRemaining()) {
+                position += channel.write(slotBuffer, position);
+            }
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to write snooze record for {}", id, e);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!file.exists()) {
+            return;
+        }
+
+        ByteBuffer data;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            // A torn final slot is ignored and overwritten by the next new chain.
+            int length = (int) (raf.length() / SLOT_SIZE) * SLOT_SIZE;
+            data = ByteBuffer.allocate(length);
+            FileChannel channel = raf.getChannel();
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+                // keep reading
+            }
+            data.flip();
+        } catch (IOException e) {
+            AlarmLog.e(TAG, "Failed to read snooze records, starting empty", e);
+            return;
+        }
+
+        slotCount = data.remaining() / SLOT_SIZE;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int id = data.getInt();
+            int count = data.getInt();
+            long snoozedUntil = data.getLong();
+            if (count == 0 || slots.containsKey(id)) {
+                freeSlots.add(slot);
+                continue;
+            }
+            slots.put(id, slot);
+            records.put(id, new Record(count, snoozedUntil));
+        }
+    }
+}
@@ -3,19 +3,44 @@ package com.example.reminder_app;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.app.NotificationManager;
-import android.media.MediaPlayer;
+import androidx.annotation.VisibleForTesting;
 
 public class StopReceiver extends BroadcastReceiver {
 
     @Override
     public void onReceive(Context context, Intent intent) {
-        // Stop the alarm notification for good
-
-        Intent serviceIntent = new Intent(context, AlarmService.class);
-        context.stopService(serviceIntent);
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        // Store and AlarmManager work stays off the main thread.
+        AlarmReceiver.WORKER.execute(() -> {
+            try {
+                AlarmLog.init(appContext);
+                handle(appContext, intent);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
 
-        NotificationManager manager = (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
-        manager.cancel(99);
+    @VisibleForTesting
+    void handle(Context context, Intent intent) {
+        // Stop the alarm notification for good
+        int id = intent.getIntExtra("id", -1);
+        AlarmMetrics.increment(context, AlarmMetrics.STOPPED);
+        if (id == AlarmBurst.SUMMARY_ID) {
+            AlarmBurst.stopAll(context);
+            return;
+        }
+        if (id == -1) {
+            // Notification posted before actions carried an id: silence everything.
+            AlarmSessions.stopAll(context);
+            return;
+        }
+        AlarmSnooze.reset(context, id);
+        // Also clears the notification of a session lost with its process;
+        // whatever else is ringing keeps ringing.
+        AlarmSessions.stop(context, id);
+        // After the stop, so the events can go out once nothing rings any more.
+        AlarmEvents.post(context, AlarmEvents.STOPPED, id);
     }
 }
@@ -0,0 +1,58 @@
+package com.example.reminder_app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Exported receiver for the system broadcasts the alarms depend on. It only
+ * acts on the actions below, so a spoofed broadcast can at most make it
+ * re-register what is already stored; alarm delivery itself stays on the
+ * private {@link AlarmReceiver}.
+ */
+public class SystemEventReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "SystemEventReceiver";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        Context appContext = context.getApplicationContext();
+        PendingResult pendingResult = goAsync();
+        AlarmReceiver.WORKER.execute(() -> {
+            try {
+                AlarmLog.init(appContext);
+                handle(appContext, intent);
+            } finally {
+                pendingResult.finish();
+            }
+        });
+    }
+
+    @VisibleForTesting
+    void handle(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action)) {
+            // Reboot cleared AlarmManager: restore every pending reminder from the store.
+            AlarmScheduler.rehydrate(context);
+            DeferredAlarms.rehydrate(context);
+        } else if (Intent.ACTION_TIMEZONE_CHANGED.equals(action)) {
+            // The compiled quiet hours schedule is tied to the old zone.
+            QuietHoursHelper.invalidate();
+            onWallClockChanged(context);
+        } else if (Intent.ACTION_TIME_CHANGED.equals(action)) {
+            onWallClockChanged(context);
+        } else {
+            AlarmLog.w(TAG, "Ignoring unexpected broadcast");
+        }
+    }
+
+    /**
+     * Recurring reminders and the end of quiet hours are wall-clock times;
+     * one-shot reminders are instants and keep their alarms.
+     */
+    private static void onWallClockChanged(Context context) {
+        AlarmScheduler.rescheduleRecurring(context);
+        DeferredAlarms.rehydrate(context);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.reminder_app;
+
+import android.content.Context;
+import androidx.core.app.NotificationManagerCompat;
+import java.util.List;
+
+/**
+ * {@link AlarmNotifier} on top of NotificationManagerCompat, building the
+ * notifications with {@link AlarmNotifications}.
+ */
+public final class SystemNotifier implements AlarmNotifier {
+
+    private final Context context;
+    private final NotificationManagerCompat manager;
+
+    public SystemNotifier(Context context) {
+        this.context = context;
+        manager = NotificationManagerCompat.from(context);
+    }
+
+    @Override
+    public void alarm(AlarmEntry entry, boolean snoozable) {
+        manager.notify(entry.id, AlarmNotifications.alarm(context, entry, snoozable));
+    }
+
+    @Override
+    public void burstMember(AlarmEntry entry, boolean snoozable) {
+        manager.notify(entry.id, AlarmNotifications.burstMember(context, entry, snoozable));
+    }
+
+    @Override
+    public void burstSummary(List<AlarmEntry> entries) {
+        manager.notify(AlarmBurst.SUMMARY_ID, AlarmNotifications.burstSummary(context, entries));
+    }
+
+    @Override
+    public void silent(AlarmEntry entry) {
+        manager.notify(entry.id, AlarmNotifications.silent(context, entry.title, entry.body));
+    }
+
+    @Override
+    public void group(int id, String heading, List<AlarmEntry> entries) {
+        manager.notify(id, AlarmNotifications.group(context, heading, entries));
+    }
+
+    @Override
+    public void cancel(int id) {
+        manager.cancel(id);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmBurstTest {
+
+    private static final int MAX_BURST = 500;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    private final AlarmReceiver receiver = new AlarmReceiver();
+
+    private static AlarmEntry entry(int id, String taskType) {
+        return new AlarmEntry(id, START, "Task " + id, null, taskType);
+    }
+
+    private int join(int id) {
+        return AlarmBurst.join(env.context, entry(id, "routine"), env.clock.currentTimeMillis());
+    }
+
+    private void fire(int id, String taskType) {
+        AlarmScheduler.scheduleExactAlarm(env.context,
+                new AlarmEntry(id, env.clock.currentTimeMillis() + 60_000L, "Task " + id, null, taskType));
+        receiver.handle(env.context, new FakeIntent(null).with("id", id));
+    }
+
+    private int count(String prefix) {
+        int count = 0;
+        for (String posted : env.notifier.posted) {
+            count += posted.startsWith(prefix) ? 1 : 0;
+        }
+        return count;
+    }
+
+    @Test
+    public void everyBurstSizeUpToFiveHundredIsCountedAndSummarisedOnce() {
+        int id = 0;
+        for (int size = 1; size <= MAX_BURST; size++) {
+            // A quiet gap longer than the window ends the previous burst.
+            env.clock.advance(AlarmBurst.DEFAULT_WINDOW_MS + 1);
+            env.notifier.posted.clear();
+            env.notifier.cancelled.clear();
+
+            List<Integer> sizes = new ArrayList<>();
+            for (int member = 0; member < size; member++) {
+                sizes.add(join(id++));
+                env.clock.advance(10);
+            }
+            AlarmBurst.postSummary(env.context);
+
+            assertEquals(0, (int) sizes.get(0));
+            for (int member = 1; member < size; member++) {
+                assertEquals("burst of " + size, member + 1, (int) sizes.get(member));
+            }
+            if (size == 1) {
+                assertTrue(env.notifier.posted.isEmpty());
+                assertEquals(Collections.singletonList(AlarmBurst.SUMMARY_ID), env.notifier.cancelled);
+            } else {
+                assertEquals(Collections.singletonList("burstSummary:" + size), env.notifier.posted);
+                assertEquals(size, env.notifier.lastSummary.size());
+            }
+        }
+    }
+
+    @Test
+    public void burstLastsWhileRemindersKeepArrivingWithinTheWindow() {
+        join(1);
+        for (int id = 2; id <= 50; id++) {
+            env.clock.advance(AlarmBurst.DEFAULT_WINDOW_MS);
+            assertEquals(id, join(id));
+        }
+
+        env.clock.advance(AlarmBurst.DEFAULT_WINDOW_MS + 1);
+
+        assertEquals(0, join(51));
+    }
+
+    @Test
+    public void zeroWindowTurnsBurstsOff() {
+        AlarmBurst.saveSettings(env.context, 0);
+
+        for (int id = 1; id <= 10; id++) {
+            assertEquals(0, join(id));
+        }
+    }
+
+    @Test
+    public void largeBurstRingsOnceAndCapsMemberNotifications() {
+        for (int id = 1; id <= MAX_BURST; id++) {
+            fire(id, "routine");
+            env.clock.advance(5);
+        }
+        AlarmBurst.postSummary(env.context);
+
+        assertEquals(1, count("alarm:"));
+        assertEquals(AlarmBurst.MAX_MEMBER_NOTIFICATIONS - 1, count("burstMember:"));
+        assertEquals(1, count("burstSummary:"));
+        assertEquals(MAX_BURST, env.notifier.lastSummary.size());
+        assertEquals(MAX_BURST, env.sound.refCount);
+    }
+
+    @Test
+    public void safetyCriticalRemindersNeverJoin() {
+        fire(1, "routine");
+        fire(2, "safetyCritical");
+        fire(3, "routine");
+        fire(4, "safetyCritical");
+
+        assertEquals(3, count("alarm:"));
+        assertEquals(1, count("burstMember:"));
+    }
+
+    @Test
+    public void stoppingMembersShrinksAndFinallyDropsTheSummary() {
+        for (int id = 1; id <= 3; id++) {
+            fire(id, "routine");
+        }
+
+        AlarmSessions.stop(env.context, 2);
+        AlarmBurst.postSummary(env.context);
+        assertEquals(2, env.notifier.lastSummary.size());
+
+        AlarmSessions.stop(env.context, 3);
+        AlarmBurst.postSummary(env.context);
+        assertTrue(env.notifier.cancelled.contains(AlarmBurst.SUMMARY_ID));
+    }
+
+    @Test
+    public void stopAllEndsOnlyTheBurst() {
+        fire(1, "safetyCritical");
+        fire(2, "routine");
+        fire(3, "routine");
+        fire(4, "routine");
+
+        AlarmBurst.stopAll(env.context);
+
+        assertNotNull(AlarmSessions.get(1));
+        for (int id = 2; id <= 4; id++) {
+            assertNull(AlarmSessions.get(id));
+        }
+        assertEquals(1, env.sound.refCount);
+    }
+}
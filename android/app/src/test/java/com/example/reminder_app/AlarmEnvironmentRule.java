@@ -0,0 +1,89 @@
+package com.example.reminder_app;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.TimeZone;
+import org.junit.rules.ExternalResource;
+
+/**
+ * Installs fakes for every {@link AlarmEnvironment} seam: a fixed clock, a
+ * recording AlarmManager and notifier, a silent sound and real on-disk stores
+ * in a scratch directory. The default time zone is UTC while the test runs.
+ * Everything is torn down again after the test. Benchmarks in this package
+ * use the same fixture by calling {@link #before} and {@link #after} from
+ * their setup and teardown.
+ */
+final class AlarmEnvironmentRule extends ExternalResource {
+
+    /** Monday 2024-01-01 09:00 UTC. */
+    static final long START = 1_704_099_600_000L;
+
+    FakeClock clock;
+    FakeContext context;
+    RecordingBackend backend;
+    RecordingNotifier notifier;
+    FakeSound sound;
+    AlarmStore store;
+    File dir;
+    private TimeZone previousZone;
+
+    @Override
+    protected void before() throws IOException {
+        previousZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+        dir = Files.createTempDirectory("alarm-test").toFile();
+        context = new FakeContext(dir);
+        clock = new FakeClock(START);
+        backend = new RecordingBackend();
+        notifier = new RecordingNotifier();
+        sound = new FakeSound();
+        store = new AlarmStore(new File(dir, "alarm_store.log"));
+
+        AlarmEnvironment.reset();
+        AlarmEnvironment.setClock(clock);
+        AlarmEnvironment.setBackend(backend);
+        AlarmEnvironment.setStore(store);
+        AlarmEnvironment.setDeferredStore(new AlarmStore(new File(dir, "deferred_alarms.log")));
+        AlarmEnvironment.setRingingStore(new AlarmStore(new File(dir, "alarm_ringing.log")));
+        AlarmEnvironment.setSnoozeStore(new SnoozeStore(new File(dir, "snooze_records.bin")));
+        AlarmEnvironment.setNotifier(notifier);
+        AlarmEnvironment.setSound(sound);
+
+        QuietHoursHelper.invalidate();
+        AlarmScheduler.invalidateQueue();
+        AlarmBurst.saveSettings(context, AlarmBurst.DEFAULT_WINDOW_MS);
+        AlarmEvents.setEnabled(context, false);
+    }
+
+    @Override
+    protected void after() {
+        AlarmSessions.stopAll(context);
+        AlarmBurst.clear();
+        QuietHoursHelper.invalidate();
+        AlarmScheduler.invalidateQueue();
+        AlarmEnvironment.reset();
+        deleteRecursively(dir);
+        TimeZone.setDefault(previousZone);
+    }
+
+    /**
+     * Pretend the process restarted: the pending reminders are read back from disk.
+     */
+    AlarmStore reopenStore() {
+        store = new AlarmStore(new File(dir, "alarm_store.log"));
+        AlarmEnvironment.setStore(store);
+        AlarmScheduler.invalidateQueue();
+        return store;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmEventsTest {
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    @Test
+    public void nothingIsRecordedUntilEnabled() {
+        AlarmEvents.post(env.context, AlarmEvents.FIRED, 7);
+
+        assertEquals(0, AlarmEvents.pending(env.context).length);
+    }
+
+    @Test
+    public void eventsAreKeptOnDisk() {
+        AlarmEvents.setEnabled(env.context, true);
+
+        AlarmEvents.post(env.context, AlarmEvents.FIRED, 7);
+        env.clock.advance(1000);
+        AlarmEvents.post(env.context, AlarmEvents.STOPPED, 7);
+
+        assertArrayEquals(new long[] {
+                AlarmEvents.FIRED, 7, START,
+                AlarmEvents.STOPPED, 7, START + 1000,
+        }, AlarmEvents.pending(env.context));
+    }
+
+    @Test
+    public void queueIsBounded() {
+        AlarmEvents.setEnabled(env.context, true);
+
+        for (int id = 0; id < AlarmEvents.MAX_PENDING + 10; id++) {
+            AlarmEvents.post(env.context, AlarmEvents.FIRED, id);
+        }
+
+        long[] pending = AlarmEvents.pending(env.context);
+        assertEquals(AlarmEvents.MAX_PENDING * AlarmEvents.EVENT_SIZE, pending.length);
+        assertEquals(AlarmEvents.MAX_PENDING - 1, pending[pending.length - 2]);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.reminder_app;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmMetricsTest {
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    @SuppressWarnings("unchecked")
+    private static long histogramCount(Map<String, Object> snapshot, String name) {
+        return (Long) ((Map<String, Object>) snapshot.get(name)).get("count");
+    }
+
+    @Test
+    public void snapshotAndResetHandsOverEverySampleOnce() {
+        AlarmMetrics.snapshotAndReset(env.context);
+        AlarmMetrics.increment(env.context, AlarmMetrics.FIRED);
+        AlarmMetrics.increment(env.context, AlarmMetrics.FIRED);
+        AlarmMetrics.record(env.context, AlarmMetrics.FIRE_DELAY, 40);
+
+        Map<String, Object> taken = AlarmMetrics.snapshotAndReset(env.context);
+        AlarmMetrics.increment(env.context, AlarmMetrics.FIRED);
+        Map<String, Object> next = AlarmMetrics.snapshot(env.context);
+
+        assertEquals(2L, taken.get("fired"));
+        assertEquals(1L, histogramCount(taken, "fireDelayMs"));
+        assertEquals(1L, next.get("fired"));
+        assertEquals(0L, histogramCount(next, "fireDelayMs"));
+    }
+
+    @Test
+    public void samplesRecordedDuringResetsAreNeverLost() throws InterruptedException {
+        AlarmMetrics.snapshotAndReset(env.context);
+        Thread writer = new Thread(() -> {
+            for (int i = 0; i < 20_000; i++) {
+                AlarmMetrics.increment(env.context, AlarmMetrics.SNOOZED);
+            }
+        });
+        writer.start();
+        long total = 0;
+        while (writer.isAlive()) {
+            total += (Long) AlarmMetrics.snapshotAndReset(env.context).get("snoozed");
+        }
+        writer.join();
+        total += (Long) AlarmMetrics.snapshotAndReset(env.context).get("snoozed");
+
+        assertEquals(20_000L, total);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.reminder_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import org.junit.Test;
+
+public class AlarmQueueTest {
+
+    private static AlarmEntry entry(int id, long time) {
+        return new AlarmEntry(id, time, "Task " + id, null, "routine");
+    }
+
+    private static List<Integer> ids(List<AlarmEntry> entries) {
+        List<Integer> ids = new ArrayList<>(entries.size());
+        for (AlarmEntry entry : entries) {
+            ids.add(entry.id);
+        }
+        return ids;
+    }
+
+    @Test
+    public void emptyQueueHasNothingDue() {
+        AlarmQueue queue = new AlarmQueue();
+
+        assertNull(queue.peek());
+        assertTrue(queue.pollDue(Long.MAX_VALUE).isEmpty());
+        assertNull(queue.remove(1));
+    }
+
+    @Test
+    public void entriesComeOutInTriggerOrder() {
+        AlarmQueue queue = new AlarmQueue();
+        queue.addAll(Arrays.asList(entry(1, 300), entry(2, 100), entry(3, 200)));
+
+        assertEquals(2, queue.peek().id);
+        assertEquals(Arrays.asList(2, 3), ids(queue.pollDue(200)));
+        assertEquals(1, queue.size());
+        assertEquals(1, queue.peek().id);
+    }
+
+    @Test
+    public void tiesAreBrokenById() {
+        AlarmQueue queue = new AlarmQueue();
+        queue.addAll(Arrays.asList(entry(9, 100), entry(3, 100), entry(5, 100), entry(1, 50)));
+
+        assertEquals(Arrays.asList(1, 3, 5, 9), ids(queue.pollDue(100)));
+    }
+
+    @Test
+    public void addingAnExistingIdReplacesIt() {
+        AlarmQueue queue = new AlarmQueue();
+        queue.add(entry(1, 100));
+        queue.add(entry(2, 200));
+
+        AlarmEntry moved = entry(1, 300);
+        queue.add(moved);
+
+        assertEquals(2, queue.size());
+        assertEquals(2, queue.peek().id);
+        assertTrue(queue.pollDue(100).isEmpty());
+        List<AlarmEntry> due = queue.pollDue(300);
+        assertEquals(Arrays.asList(2, 1), ids(due));
+        assertSame(moved, due.get(1));
+    }
+
+    @Test
+    public void cancelledEntriesAreNeverDue() {
+        AlarmQueue queue = new AlarmQueue();
+        AlarmEntry first = entry(1, 100);
+        queue.addAll(Arrays.asList(first, entry(2, 100), entry(3, 200)));
+
+        assertSame(first, queue.remove(1));
+        assertNull(queue.remove(1));
+
+        assertEquals(2, queue.peek().id);
+        assertEquals(Arrays.asList(2, 3), ids(queue.pollDue(200)));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void cancellingTheHeadExposesTheNext() {
+        AlarmQueue queue = new AlarmQueue();
+        queue.addAll(Arrays.asList(entry(1, 100), entry(2, 200)));
+
+        queue.remove(1);
+
+        assertEquals(2, queue.peek().id);
+        assertTrue(queue.pollDue(199).isEmpty());
+    }
+
+    @Test
+    public void clearEmptiesBothIndexes() {
+        AlarmQueue queue = new AlarmQueue();
+        queue.addAll(Arrays.asList(entry(1, 100), entry(2, 200)));
+
+        queue.clear();
+        queue.add(entry(1, 300));
+
+        assertEquals(1, queue.size());
+        assertEquals(Collections.singletonList(1), ids(queue.pollDue(Long.MAX_VALUE)));
+    }
+
+    /**
+     * Random adds, re-adds and cancellations with many equal times, checked
+     * against a plain priority queue rebuilt from the live entries.
+     */
+    @Test
+    public void matchesAReferenceUnderRandomOperations() {
+        Random random = new Random(7);
+        AlarmQueue queue = new AlarmQueue();
+        AlarmEntry[] live = new AlarmEntry[200];
+        long now = 0;
+
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(live.length);
+            int op = random.nextInt(10);
+            if (op < 6) {
+                AlarmEntry entry = entry(id, now + random.nextInt(50));
+                queue.add(entry);
+                live[id] = entry;
+            } else if (op < 8) {
+                AlarmEntry removed = queue.remove(id);
+                assertSame(live[id], removed);
+                live[id] = null;
+            } else {
+                now += random.nextInt(10);
+                PriorityQueue<AlarmEntry> reference = new PriorityQueue<>((a, b) -> a.timeMillis != b.timeMillis
+                        ? Long.compare(a.timeMillis, b.timeMillis) : Integer.compare(a.id, b.id));
+                for (AlarmEntry entry : live) {
+                    if (entry != null) {
+                        reference.add(entry);
+                    }
+                }
+                List<Integer> expected = new ArrayList<>();
+                while (!reference.isEmpty() && reference.peek().timeMillis <= now) {
+                    AlarmEntry due = reference.poll();
+                    expected.add(due.id);
+                    live[due.id] = null;
+                }
+                assertEquals(expected, ids(queue.pollDue(now)));
+            }
+
+            int size = 0;
+            for (AlarmEntry entry : live) {
+                size += entry != null ? 1 : 0;
+            }
+            assertEquals(size, queue.size());
+        }
+    }
+}
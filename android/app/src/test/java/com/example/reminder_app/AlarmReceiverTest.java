@@ -0,0 +1,191 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmReceiverTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    private final AlarmReceiver receiver = new AlarmReceiver();
+
+    /** Schedule ahead of time, as the app does, and return to START. */
+    private void schedule(int id, long time, String taskType, String recurrence) {
+        env.clock.set(START - HOUR);
+        AlarmScheduler.scheduleExactAlarm(env.context, new AlarmEntry(id, time, "Task " + id, null, taskType, recurrence));
+        env.clock.set(START);
+    }
+
+    private void fire(int id) {
+        receiver.handle(env.context, new FakeIntent(null).with("id", id));
+    }
+
+    @Test
+    public void storedReminderRings() {
+        schedule(7, START, "routine", null);
+
+        fire(7);
+
+        assertEquals(Collections.singletonList("alarm:7"), env.notifier.posted);
+        assertNotNull(AlarmSessions.get(7));
+        assertEquals(1, env.sound.refCount);
+        assertEquals(1, env.context.serviceStarts);
+        assertNull(env.store.get(7));
+    }
+
+    @Test
+    public void unknownReminderIsDropped() {
+        fire(7);
+        receiver.handle(env.context, new FakeIntent(null));
+
+        assertTrue(env.notifier.posted.isEmpty());
+        assertNull(AlarmSessions.get(7));
+        assertEquals(0, env.sound.refCount);
+    }
+
+    @Test
+    public void legacyIntentRingsWithItsOwnPayload() {
+        receiver.handle(env.context, new FakeIntent(null)
+                .with("id", 7)
+                .with("title", "Old task")
+                .with("taskType", "routine"));
+
+        assertEquals(Collections.singletonList("alarm:7"), env.notifier.posted);
+        assertEquals("Old task", AlarmSessions.get(7).entry.title);
+    }
+
+    @Test
+    public void ringsWhenTheServiceIsNotAllowedToStart() {
+        env.context.refuseServiceStarts = true;
+        schedule(7, START, "standard", null);
+
+        fire(7);
+
+        assertEquals(Collections.singletonList("alarm:7"), env.notifier.posted);
+        assertEquals(1, env.sound.refCount);
+    }
+
+    @Test
+    public void deferredFlushIsWindowedWithoutExactPermission() {
+        QuietHoursHelper.saveSettings(env.context, true, 9, 0, 10, 0, "0", true);
+        schedule(7, START, "standard", null);
+        env.backend.exactAllowed = false;
+
+        fire(7);
+
+        assertEquals(DeliveryStrategy.WINDOW, env.backend.last().mode);
+        assertEquals(START + HOUR, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void recurringReminderMovesToItsNextOccurrence() {
+        schedule(7, START, "routine", "FREQ=DAILY");
+
+        fire(7);
+
+        assertEquals(Collections.singletonList("alarm:7"), env.notifier.posted);
+        assertEquals(START + DAY, env.store.get(7).timeMillis);
+        assertEquals(START + DAY, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void silentPolicyPostsWithoutRinging() {
+        QuietHoursHelper.saveSettings(env.context, true, 0, 0, 23, 59, "0,1,2,3,4,5,6", true);
+        Map<String, Integer> policies = new HashMap<>();
+        policies.put("standard", QuietSchedule.POLICY_SILENT);
+        QuietHoursHelper.saveRules(env.context, Collections.<QuietSchedule.Window>emptyList(), policies);
+        schedule(7, START, "standard", null);
+
+        fire(7);
+
+        assertEquals(Collections.singletonList("silent:7"), env.notifier.posted);
+        assertEquals(0, env.sound.refCount);
+    }
+
+    @Test
+    public void deferredReminderRingsWhenQuietHoursEnd() {
+        // Monday 09:00-10:00; START is Monday 09:00.
+        QuietHoursHelper.saveSettings(env.context, true, 9, 0, 10, 0, "0", true);
+        schedule(7, START, "standard", null);
+
+        fire(7);
+
+        assertTrue(env.notifier.posted.isEmpty());
+        assertEquals(START + HOUR, env.backend.last().triggerAtMillis);
+
+        env.clock.set(START + HOUR);
+        receiver.handle(env.context, new FakeIntent(DeferredAlarms.ACTION_FLUSH_DEFERRED));
+
+        assertEquals(Collections.singletonList("alarm:7"), env.notifier.posted);
+    }
+
+    @Test
+    public void remindersFiringTogetherShareOneRing() {
+        schedule(1, START, "routine", null);
+        schedule(2, START, "routine", null);
+        schedule(3, START, "safetyCritical", null);
+
+        fire(1);
+        env.clock.advance(1000);
+        fire(2);
+        fire(3);
+
+        assertEquals(Arrays.asList("alarm:1", "burstMember:2", "alarm:3"), env.notifier.posted);
+    }
+
+    @Test
+    public void serviceStartsOnlyForTheFirstRingingAlarm() {
+        schedule(1, START, "routine", null);
+        schedule(2, START, "routine", null);
+
+        fire(1);
+        fire(2);
+        AlarmSessions.stop(env.context, 1);
+        AlarmSessions.stop(env.context, 2);
+        schedule(3, START, "routine", null);
+        fire(3);
+
+        assertEquals(2, env.context.serviceStarts);
+        assertEquals(1, env.context.serviceStops);
+    }
+
+    @Test
+    public void nextAlarmWakeupDeliversEverythingDue() {
+        AlarmScheduler.setNextAlarmOnly(env.context, true);
+        schedule(1, START, "routine", null);
+        schedule(2, START, "routine", null);
+        schedule(3, START + HOUR, "routine", null);
+
+        receiver.handle(env.context, new FakeIntent(AlarmScheduler.ACTION_NEXT_ALARM));
+
+        assertEquals(Arrays.asList("alarm:1", "burstMember:2"), env.notifier.posted);
+        assertEquals(START + HOUR, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void standardRemindersWithinAMinuteRingOnOneWakeup() {
+        schedule(1, START, "standard", null);
+        schedule(2, START + 45_000L, "standard", null);
+        schedule(3, START + HOUR, "standard", null);
+
+        receiver.handle(env.context, new FakeIntent(AlarmScheduler.ACTION_NEXT_ALARM));
+
+        assertEquals(Arrays.asList("alarm:1", "burstMember:2"), env.notifier.posted);
+        assertEquals(START + HOUR, env.backend.last().triggerAtMillis);
+    }
+}
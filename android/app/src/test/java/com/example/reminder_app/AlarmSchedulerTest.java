@@ -0,0 +1,278 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmSchedulerTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24 * HOUR;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    private static AlarmEntry entry(int id, long offset, String taskType) {
+        return new AlarmEntry(id, START + offset, "Task " + id, "Body " + id, taskType);
+    }
+
+    @Test
+    public void newEntriesAreRegisteredPerTaskType() {
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Arrays.asList(
+                entry(1, HOUR, "standard"),
+                entry(2, HOUR, "safetyCritical"),
+                entry(3, HOUR, "routine")));
+
+        assertEquals(3, result.scheduled);
+        assertEquals(3, env.store.size());
+        assertEquals(0, env.backend.count(DeliveryStrategy.WINDOW));
+        assertEquals(1, env.backend.count(DeliveryStrategy.ALARM_CLOCK));
+        assertEquals(2, env.backend.count(DeliveryStrategy.EXACT));
+    }
+
+    @Test
+    public void standardRemindersShareOneExactWakeup() {
+        List<AlarmEntry> batch = new ArrayList<>();
+        for (int id = 1; id <= 50; id++) {
+            batch.add(entry(id, HOUR + id * 1000L, "standard"));
+        }
+
+        AlarmScheduler.applyBatch(env.context, batch);
+
+        assertEquals(1, env.backend.calls.size());
+        assertEquals(DeliveryStrategy.EXACT, env.backend.last().mode);
+        assertEquals(START + HOUR + 1000L, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void standardRemindersWithinAMinuteAreTakenTogether() {
+        AlarmScheduler.applyBatch(env.context, Arrays.asList(
+                entry(1, HOUR, "standard"),
+                entry(2, HOUR + 40_000L, "standard"),
+                entry(3, HOUR + 50_000L, "routine"),
+                entry(4, HOUR + 5 * 60_000L, "standard")));
+        env.clock.set(START + HOUR);
+
+        List<AlarmEntry> due = AlarmScheduler.takeDueAlarms(env.context);
+
+        assertEquals(2, due.size());
+        assertEquals(1, due.get(0).id);
+        assertEquals(2, due.get(1).id);
+        assertNull(env.store.get(2));
+        assertEquals(START + HOUR + 5 * 60_000L, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void snoozedStandardReminderIsNotTakenEarly() {
+        AlarmEntry snoozed = entry(2, HOUR, "standard");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(snoozed));
+        long snoozedUntil = ringAndSnooze(snoozed);
+        AlarmScheduler.applyBatch(env.context, Arrays.asList(snoozed, entry(1, snoozedUntil - START - 30_000L, "standard")));
+        env.clock.set(snoozedUntil - 30_000L);
+
+        List<AlarmEntry> due = AlarmScheduler.takeDueAlarms(env.context);
+
+        assertEquals(1, due.size());
+        assertEquals(1, due.get(0).id);
+        assertEquals(snoozedUntil, env.store.get(2).timeMillis);
+        assertEquals(snoozedUntil, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void resendingTheSameBatchRegistersNothing() {
+        List<AlarmEntry> batch = Arrays.asList(entry(1, HOUR, "standard"), entry(2, 2 * HOUR, "routine"));
+        AlarmScheduler.applyBatch(env.context, batch);
+        int registrations = env.backend.calls.size();
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, batch);
+
+        assertEquals(0, result.scheduled);
+        assertEquals(2, result.unchanged);
+        assertEquals(registrations, env.backend.calls.size());
+    }
+
+    @Test
+    public void changedEntriesAreRescheduled() {
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(entry(1, HOUR, "routine")));
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context,
+                Collections.singletonList(entry(1, 3 * HOUR, "routine")));
+
+        assertEquals(1, result.scheduled);
+        assertEquals(START + 3 * HOUR, env.store.get(1).timeMillis);
+        assertEquals(START + 3 * HOUR, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void entriesMissingFromTheBatchAreCancelled() {
+        AlarmScheduler.applyBatch(env.context, Arrays.asList(entry(1, HOUR, "routine"), entry(2, HOUR, "routine")));
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context,
+                Collections.singletonList(entry(1, HOUR, "routine")));
+
+        assertEquals(1, result.cancelled);
+        assertEquals(1, env.store.size());
+        assertNull(env.store.get(2));
+    }
+
+    @Test
+    public void pastEntriesAreSkipped() {
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context,
+                Collections.singletonList(entry(1, -HOUR, "routine")));
+
+        assertEquals(1, result.skipped);
+        assertEquals(0, env.store.size());
+        assertEquals(0, env.backend.calls.size());
+    }
+
+    @Test
+    public void pastRecurringEntryMovesToItsNextOccurrence() {
+        AlarmEntry daily = new AlarmEntry(1, START - HOUR, "Stretch", null, "routine", "FREQ=DAILY");
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+
+        assertEquals(1, result.scheduled);
+        assertEquals(START - HOUR + DAY, env.store.get(1).timeMillis);
+        assertEquals(START - HOUR + DAY, env.backend.last().triggerAtMillis);
+    }
+
+    /** Let {@code entry} ring and snooze it, as the snooze action does. */
+    private long ringAndSnooze(AlarmEntry entry) {
+        env.clock.set(entry.timeMillis);
+        return AlarmSnooze.snooze(env.context, env.store.get(entry.id));
+    }
+
+    @Test
+    public void snoozedReminderSurvivesASyncOfItsPastCopy() {
+        AlarmEntry once = entry(1, HOUR, "routine");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(once));
+        long snoozedUntil = ringAndSnooze(once);
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Collections.singletonList(once));
+
+        assertEquals(1, result.skipped);
+        assertEquals(snoozedUntil, env.store.get(1).timeMillis);
+        assertTrue(AlarmSnooze.isPending(env.context, 1, env.clock.currentTimeMillis()));
+    }
+
+    @Test
+    public void editWhileSnoozedReplacesTheSnooze() {
+        AlarmEntry once = entry(1, HOUR, "routine");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(once));
+        ringAndSnooze(once);
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context,
+                Collections.singletonList(entry(1, 3 * HOUR, "routine")));
+
+        assertEquals(1, result.scheduled);
+        assertEquals(START + 3 * HOUR, env.store.get(1).timeMillis);
+        assertEquals(START + 3 * HOUR, env.backend.last().triggerAtMillis);
+        assertFalse(AlarmSnooze.isPending(env.context, 1, env.clock.currentTimeMillis()));
+    }
+
+    @Test
+    public void snoozedRecurringReminderKeepsItsSnoozeWhenUnchanged() {
+        AlarmEntry daily = new AlarmEntry(1, START + HOUR, "Stretch", null, "routine", "FREQ=DAILY");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+        long snoozedUntil = ringAndSnooze(daily);
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+
+        assertEquals(1, result.unchanged);
+        assertEquals(snoozedUntil, env.store.get(1).timeMillis);
+    }
+
+    @Test
+    public void snoozedRecurringReminderTakesAnEdit() {
+        AlarmEntry daily = new AlarmEntry(1, START + HOUR, "Stretch", null, "routine", "FREQ=DAILY");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+        ringAndSnooze(daily);
+
+        AlarmEntry renamed = new AlarmEntry(1, START + HOUR, "Stretch and walk", null, "routine", "FREQ=DAILY");
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Collections.singletonList(renamed));
+
+        assertEquals(1, result.scheduled);
+        assertEquals("Stretch and walk", env.store.get(1).title);
+        assertEquals(START + HOUR + DAY, env.store.get(1).timeMillis);
+        assertFalse(AlarmSnooze.isPending(env.context, 1, env.clock.currentTimeMillis()));
+    }
+
+    @Test
+    public void deletingASnoozedRecurringReminderCancelsIt() {
+        AlarmEntry daily = new AlarmEntry(1, START + HOUR, "Stretch", null, "routine", "FREQ=DAILY");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+        ringAndSnooze(daily);
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, Collections.<AlarmEntry>emptyList());
+
+        assertEquals(1, result.cancelled);
+        assertNull(env.store.get(1));
+        assertFalse(AlarmSnooze.isPending(env.context, 1, env.clock.currentTimeMillis()));
+    }
+
+    @Test
+    public void unfinishedSnoozeChainEndsAtTheNextRegularRing() {
+        AlarmEntry daily = new AlarmEntry(1, START + HOUR, "Stretch", null, "routine", "FREQ=DAILY");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(daily));
+        long snoozedUntil = ringAndSnooze(daily);
+        SnoozeStore snoozes = AlarmEnvironment.snoozeStore(env.context);
+
+        env.clock.set(snoozedUntil);
+        AlarmScheduler.onAlarmFired(env.context, 1);
+        assertEquals(1, snoozes.get(1).count); // the snooze itself rang; never stopped
+
+        env.clock.set(START + HOUR + DAY);
+        AlarmScheduler.onAlarmFired(env.context, 1);
+
+        assertNull(snoozes.get(1));
+    }
+
+    @Test
+    public void schedulingAReminderAgainEndsItsFinishedSnoozeChain() {
+        AlarmEntry once = entry(1, HOUR, "routine");
+        AlarmScheduler.applyBatch(env.context, Collections.singletonList(once));
+        long snoozedUntil = ringAndSnooze(once);
+        env.clock.set(snoozedUntil);
+        AlarmScheduler.onAlarmFired(env.context, 1);
+
+        AlarmScheduler.scheduleExactAlarm(env.context, entry(1, DAY, "routine"));
+
+        assertNull(AlarmEnvironment.snoozeStore(env.context).get(1));
+    }
+
+    @Test
+    public void withoutExactPermissionEverythingIsWindowed() {
+        env.backend.exactAllowed = false;
+
+        AlarmScheduler.applyBatch(env.context, Arrays.asList(
+                entry(1, HOUR, "standard"),
+                entry(2, HOUR, "safetyCritical"),
+                entry(3, HOUR, "routine")));
+
+        assertEquals(3, env.backend.count(DeliveryStrategy.WINDOW));
+    }
+
+    @Test
+    public void nextAlarmOnlyModeArmsOneWakeupForTheEarliest() {
+        AlarmScheduler.setNextAlarmOnly(env.context, true);
+        List<AlarmEntry> batch = new ArrayList<>();
+        for (int id = 1; id <= 200; id++) {
+            batch.add(entry(id, (201 - id) * 60_000L, "routine"));
+        }
+
+        AlarmScheduler.BatchResult result = AlarmScheduler.applyBatch(env.context, batch);
+
+        assertEquals(200, result.scheduled);
+        assertEquals(1, env.backend.calls.size());
+        assertEquals(START + 60_000L, env.backend.last().triggerAtMillis);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class AlarmStoreTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    @Test
+    public void entriesSurviveAReopen() {
+        List<AlarmEntry> entries = new ArrayList<>();
+        for (int id = 0; id < 2000; id++) {
+            entries.add(new AlarmEntry(id, START + id * MINUTE, "Task " + id, id % 2 == 0 ? "Body" : null,
+                    "standard", id % 10 == 0 ? "FREQ=DAILY" : null));
+        }
+        env.store.update(entries, new ArrayList<Integer>());
+        List<Integer> removes = new ArrayList<>();
+        for (int id = 0; id < 2000; id += 3) {
+            removes.add(id);
+        }
+        env.store.update(new ArrayList<AlarmEntry>(), removes);
+        env.store.put(entries.get(1).withTime(START - MINUTE));
+
+        AlarmStore reopened = env.reopenStore();
+
+        assertEquals(2000 - removes.size(), reopened.size());
+        assertNull(reopened.get(0));
+        assertEquals(START - MINUTE, reopened.get(1).timeMillis);
+        AlarmEntry recurring = reopened.get(10);
+        assertEquals("Task 10", recurring.title);
+        assertEquals("Body", recurring.body);
+        assertEquals("FREQ=DAILY", recurring.recurrence);
+        assertNull(reopened.get(11).body);
+    }
+
+    @Test
+    public void rehydrateRegistersEveryPendingEntry() {
+        for (int id = 1; id <= 3; id++) {
+            env.store.put(new AlarmEntry(id, START + id * MINUTE, "Task", null, "routine"));
+        }
+        env.store.put(new AlarmEntry(4, START - MINUTE, "Missed", null, "standard"));
+        env.reopenStore();
+
+        int registered = AlarmScheduler.rehydrate(env.context);
+
+        assertEquals(4, registered);
+        assertEquals(4, env.backend.calls.size());
+        // The reminder missed while the device was off fires right away.
+        assertEquals(4, env.backend.count(DeliveryStrategy.EXACT));
+        long earliest = Long.MAX_VALUE;
+        for (RecordingBackend.Call call : env.backend.calls) {
+            earliest = Math.min(earliest, call.triggerAtMillis);
+        }
+        assertEquals(START, earliest);
+    }
+
+    @Test
+    public void rehydrateInNextAlarmOnlyModeArmsOneWakeup() {
+        AlarmScheduler.setNextAlarmOnly(env.context, true);
+        for (int id = 1; id <= 500; id++) {
+            env.store.put(new AlarmEntry(id, START + (501 - id) * MINUTE, "Task", null, "routine"));
+        }
+        env.reopenStore();
+
+        assertEquals(1, AlarmScheduler.rehydrate(env.context));
+        assertEquals(1, env.backend.calls.size());
+        assertEquals(START + MINUTE, env.backend.last().triggerAtMillis);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.reminder_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DeliveryStrategyTest {
+
+    private static final long NOW = 1_704_099_600_000L;
+    private static final long LATER = NOW + 3_600_000L;
+
+    private static AlarmEntry entry(String taskType) {
+        return new AlarmEntry(1, LATER, "Task", null, taskType);
+    }
+
+    @Test
+    public void safetyCriticalUsesAnAlarmClock() {
+        DeliveryStrategy strategy = DeliveryStrategy.select(entry("safetyCritical"), LATER, NOW, true);
+        assertEquals(DeliveryStrategy.ALARM_CLOCK, strategy.mode);
+        assertEquals(LATER, strategy.triggerAtMillis);
+    }
+
+    @Test
+    public void standardIsExactAndSharesTheWakeup() {
+        DeliveryStrategy strategy = DeliveryStrategy.select(entry("standard"), LATER, NOW, true);
+        assertEquals(DeliveryStrategy.EXACT, strategy.mode);
+        assertEquals(LATER, strategy.triggerAtMillis);
+        assertTrue(DeliveryStrategy.sharesWakeup(entry("standard")));
+        assertFalse(DeliveryStrategy.sharesWakeup(entry("safetyCritical")));
+        assertFalse(DeliveryStrategy.sharesWakeup(entry("routine")));
+    }
+
+    @Test
+    public void overdueReminderFiresExactlyNow() {
+        DeliveryStrategy strategy = DeliveryStrategy.select(entry("standard"), NOW - 1000, NOW, true);
+        assertEquals(DeliveryStrategy.EXACT, strategy.mode);
+        assertEquals(NOW, strategy.triggerAtMillis);
+    }
+
+    @Test
+    public void otherTaskTypesAreExact() {
+        assertEquals(DeliveryStrategy.EXACT, DeliveryStrategy.select(entry("routine"), LATER, NOW, true).mode);
+    }
+
+    @Test
+    public void missingTaskTypeCountsAsStandard() {
+        assertTrue(DeliveryStrategy.sharesWakeup(entry(null)));
+    }
+
+    @Test
+    public void withoutExactPermissionEverythingIsWindowed() {
+        for (String type : new String[] {"standard", "safetyCritical", "routine", null}) {
+            DeliveryStrategy windowed = DeliveryStrategy.select(entry(type), LATER, NOW, false);
+            assertEquals(DeliveryStrategy.WINDOW, windowed.mode);
+            assertEquals(DeliveryStrategy.WINDOW_MS, windowed.windowMillis);
+        }
+    }
+
+    @Test
+    public void wakeupFallsBackToAWindow() {
+        assertEquals(DeliveryStrategy.EXACT, DeliveryStrategy.forWakeup(LATER, NOW, true).mode);
+        DeliveryStrategy windowed = DeliveryStrategy.forWakeup(LATER, NOW, false);
+        assertEquals(DeliveryStrategy.WINDOW, windowed.mode);
+        assertEquals(LATER, windowed.triggerAtMillis);
+        assertEquals(NOW, DeliveryStrategy.forWakeup(NOW - 5, NOW, true).triggerAtMillis);
+    }
+}
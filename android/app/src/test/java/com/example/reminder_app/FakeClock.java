@@ -0,0 +1,26 @@
+package com.example.reminder_app;
+
+/**
+ * Clock that only moves when told to.
+ */
+final class FakeClock implements Clock {
+
+    private long now;
+
+    FakeClock(long now) {
+        this.now = now;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    void set(long millis) {
+        now = millis;
+    }
+
+    void advance(long millis) {
+        now += millis;
+    }
+}
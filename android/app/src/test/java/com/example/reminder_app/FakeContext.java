@@ -0,0 +1,82 @@
+package com.example.reminder_app;
+
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import java.io.File;
+import java.util.HashMap;
+
+/**
+ * Application context backed by a scratch directory and in-memory
+ * preferences. Service starts are counted, not performed, or refused the way
+ * Android 12+ refuses them without a background-start exemption.
+ */
+final class FakeContext extends ContextWrapper {
+
+    private final File filesDir;
+    private final HashMap<String, FakeSharedPreferences> prefs = new HashMap<>();
+    int serviceStarts;
+    int serviceStops;
+    boolean refuseServiceStarts;
+
+    FakeContext(File filesDir) {
+        super(null);
+        this.filesDir = filesDir;
+    }
+
+    @Override
+    public Context getApplicationContext() {
+        return this;
+    }
+
+    @Override
+    public String getPackageName() {
+        return "com.example.reminder_app";
+    }
+
+    @Override
+    public File getFilesDir() {
+        return filesDir;
+    }
+
+    @Override
+    public File getNoBackupFilesDir() {
+        return filesDir;
+    }
+
+    @Override
+    public SharedPreferences getSharedPreferences(String name, int mode) {
+        FakeSharedPreferences preferences = prefs.get(name);
+        if (preferences == null) {
+            preferences = new FakeSharedPreferences();
+            prefs.put(name, preferences);
+        }
+        return preferences;
+    }
+
+    @Override
+    public ComponentName startService(Intent service) {
+        return start();
+    }
+
+    @Override
+    public ComponentName startForegroundService(Intent service) {
+        return start();
+    }
+
+    private ComponentName start() {
+        if (refuseServiceStarts) {
+            throw new IllegalStateException("startForegroundService() not allowed");
+        }
+        serviceStarts++;
+        return null;
+    }
+
+    @Override
+    public boolean stopService(Intent service) {
+        serviceStops++;
+        return true;
+    }
+}
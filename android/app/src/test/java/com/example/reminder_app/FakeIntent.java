@@ -0,0 +1,44 @@
+package com.example.reminder_app;
+
+import android.content.Intent;
+import java.util.HashMap;
+
+/**
+ * Intent with working action and extras; the android.jar stub only returns defaults.
+ */
+final class FakeIntent extends Intent {
+
+    private final String action;
+    private final HashMap<String, Object> extras = new HashMap<>();
+
+    FakeIntent(String action) {
+        this.action = action;
+    }
+
+    FakeIntent with(String key, Object value) {
+        extras.put(key, value);
+        return this;
+    }
+
+    @Override
+    public String getAction() {
+        return action;
+    }
+
+    @Override
+    public boolean hasExtra(String name) {
+        return extras.containsKey(name);
+    }
+
+    @Override
+    public int getIntExtra(String name, int defaultValue) {
+        Object value = extras.get(name);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    @Override
+    public String getStringExtra(String name) {
+        Object value = extras.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+}
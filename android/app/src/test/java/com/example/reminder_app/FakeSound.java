@@ -0,0 +1,32 @@
+package com.example.reminder_app;
+
+/**
+ * AlarmSound that only keeps the reference count.
+ */
+final class FakeSound implements AlarmSound {
+
+    int refCount;
+    int prewarms;
+
+    @Override
+    public void prewarm() {
+        prewarms++;
+    }
+
+    @Override
+    public void acquire() {
+        refCount++;
+    }
+
+    @Override
+    public void release() {
+        if (refCount > 0) {
+            refCount--;
+        }
+    }
+
+    @Override
+    public void stopAll() {
+        refCount = 0;
+    }
+}
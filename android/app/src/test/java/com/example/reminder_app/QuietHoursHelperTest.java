@@ -0,0 +1,53 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.content.Context;
+import java.util.Collections;
+import java.util.HashMap;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class QuietHoursHelperTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    @Test
+    public void invalidSettingsAreRejectedBeforeSaving() {
+        QuietHoursHelper.saveSettings(env.context, true, 22, 0, 7, 0, "0,1,2,3,4", true);
+        try {
+            QuietHoursHelper.saveSettings(env.context, true, 30, 0, 7, 0, "0,1,2,3,4", true);
+            fail("hour 30 accepted");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+
+        HashMap<String, Object> settings = QuietHoursHelper.getSettings(env.context);
+        assertEquals(22, settings.get("startHour"));
+    }
+
+    @Test
+    public void invalidWindowSavedByAnOlderVersionIsIgnored() {
+        env.context.getSharedPreferences("quiet_hours_prefs", Context.MODE_PRIVATE).edit()
+                .putBoolean("quiet_hours_enabled", true)
+                .putInt("quiet_hours_start_hour", 26)
+                .putString("quiet_hours_days", "0")
+                .apply();
+        QuietHoursHelper.saveRules(env.context,
+                Collections.singletonList(new QuietSchedule.Window("0", 8, 0, 10, 0)),
+                Collections.<String, Integer>emptyMap());
+
+        QuietSchedule schedule = QuietHoursHelper.getSchedule(env.context);
+
+        assertTrue(schedule.isActiveAt(START));
+        assertFalse(schedule.isActiveAt(START + 2 * HOUR));
+        assertEquals(QuietSchedule.POLICY_DEFER, QuietHoursHelper.resolvePolicy(env.context, "standard"));
+    }
+}
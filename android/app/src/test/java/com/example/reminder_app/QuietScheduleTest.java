@@ -0,0 +1,154 @@
+package com.example.reminder_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+import org.junit.Test;
+
+public class QuietScheduleTest {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+    /** Monday 2024-01-01 00:00 UTC. */
+    private static final long MONDAY = 1_704_067_200_000L;
+
+    private static QuietSchedule schedule(QuietSchedule.Window... windows) {
+        return QuietSchedule.compile(true, Arrays.asList(windows),
+                Collections.<String, Integer>emptyMap(), true, UTC);
+    }
+
+    @Test
+    public void minuteOfWeekStartsOnMonday() {
+        QuietSchedule schedule = schedule(new QuietSchedule.Window("0", 22, 0, 7, 0));
+        assertEquals(0, schedule.minuteOfWeek(MONDAY));
+        assertEquals(QuietSchedule.MINUTES_PER_DAY + 61, schedule.minuteOfWeek(MONDAY + DAY + HOUR + MINUTE));
+        assertEquals(QuietSchedule.MINUTES_PER_WEEK - 1, schedule.minuteOfWeek(MONDAY - MINUTE));
+    }
+
+    @Test
+    public void sameDayWindowExcludesItsEnd() {
+        QuietSchedule schedule = schedule(new QuietSchedule.Window("0", 9, 0, 17, 0));
+        assertFalse(schedule.isActiveAt(MONDAY + 9 * HOUR - 1));
+        assertTrue(schedule.isActiveAt(MONDAY + 9 * HOUR));
+        assertTrue(schedule.isActiveAt(MONDAY + 17 * HOUR - 1));
+        assertFalse(schedule.isActiveAt(MONDAY + 17 * HOUR));
+        assertFalse(schedule.isActiveAt(MONDAY + DAY + 10 * HOUR));
+    }
+
+    @Test
+    public void overnightWindowCoversBothEndsOfTheSelectedDay() {
+        QuietSchedule schedule = schedule(new QuietSchedule.Window("0", 22, 0, 7, 0));
+        assertTrue(schedule.isActiveAt(MONDAY + 6 * HOUR + 59 * MINUTE));
+        assertFalse(schedule.isActiveAt(MONDAY + 7 * HOUR));
+        assertTrue(schedule.isActiveAt(MONDAY + 23 * HOUR));
+        assertFalse(schedule.isActiveAt(MONDAY + DAY + 6 * HOUR));
+    }
+
+    @Test
+    public void windowsAreMerged() {
+        QuietSchedule schedule = schedule(
+                new QuietSchedule.Window("0,1,2,3,4", 12, 0, 13, 0),
+                new QuietSchedule.Window("5,6", 8, 0, 10, 0));
+        assertTrue(schedule.isActiveAt(MONDAY + 2 * DAY + 12 * HOUR + 30 * MINUTE));
+        assertFalse(schedule.isActiveAt(MONDAY + 2 * DAY + 9 * HOUR));
+        assertTrue(schedule.isActiveAt(MONDAY + 6 * DAY + 9 * HOUR));
+        assertFalse(schedule.isActiveAt(MONDAY + 6 * DAY + 12 * HOUR + 30 * MINUTE));
+    }
+
+    @Test
+    public void disabledOrEmptyScheduleIsNeverQuiet() {
+        QuietSchedule disabled = QuietSchedule.compile(false, 0, 0, 23, 59, "0,1,2,3,4,5,6", true, UTC);
+        QuietSchedule noDays = QuietSchedule.compile(true, 0, 0, 23, 59, "", true, UTC);
+        QuietSchedule emptyWindow = QuietSchedule.compile(true, 8, 0, 8, 0, "0", true, UTC);
+        for (QuietSchedule schedule : Arrays.asList(disabled, noDays, emptyWindow)) {
+            assertFalse(schedule.isEnabled());
+            assertFalse(schedule.isActiveAt(MONDAY + 8 * HOUR));
+        }
+    }
+
+    @Test
+    public void followsTheScheduleTimeZone() {
+        // 22:00-07:00 in Berlin is 21:00-06:00 UTC in winter.
+        QuietSchedule berlin = QuietSchedule.compile(true, 22, 0, 7, 0, "0", true,
+                TimeZone.getTimeZone("Europe/Berlin"));
+        assertTrue(berlin.isActiveAt(MONDAY + 21 * HOUR + 30 * MINUTE));
+        assertFalse(berlin.isActiveAt(MONDAY + 20 * HOUR + 30 * MINUTE));
+    }
+
+    @Test
+    public void policyOutsideQuietHoursIsDeliver() {
+        QuietSchedule schedule = schedule(new QuietSchedule.Window("0", 22, 0, 7, 0));
+        assertEquals(QuietSchedule.POLICY_DELIVER, schedule.policyFor("standard", MONDAY + 12 * HOUR));
+    }
+
+    @Test
+    public void policyInsideQuietHours() {
+        Map<String, Integer> policies = new HashMap<>();
+        policies.put("standard", QuietSchedule.POLICY_SILENT);
+        policies.put("chore", QuietSchedule.POLICY_SUPPRESS);
+        long night = MONDAY + 23 * HOUR;
+
+        QuietSchedule withException = QuietSchedule.compile(true,
+                Collections.singletonList(new QuietSchedule.Window("0", 22, 0, 7, 0)), policies, true, UTC);
+        assertEquals(QuietSchedule.POLICY_SILENT, withException.policyFor("standard", night));
+        assertEquals(QuietSchedule.POLICY_SUPPRESS, withException.policyFor("chore", night));
+        assertEquals(QuietSchedule.POLICY_DELIVER, withException.policyFor("safetyCritical", night));
+        assertEquals(QuietSchedule.POLICY_DEFER, withException.policyFor("other", night));
+        assertEquals(QuietSchedule.POLICY_DEFER, withException.policyFor(null, night));
+
+        QuietSchedule withoutException = QuietSchedule.compile(true,
+                Collections.singletonList(new QuietSchedule.Window("0", 22, 0, 7, 0)), policies, false, UTC);
+        assertEquals(QuietSchedule.POLICY_DEFER, withoutException.policyFor("safetyCritical", night));
+    }
+
+    @Test
+    public void nextQuietEndSkipsToTheFirstFreeMinute() {
+        QuietSchedule mondayOnly = schedule(new QuietSchedule.Window("0", 22, 0, 7, 0));
+        assertEquals(MONDAY + DAY, mondayOnly.nextQuietEnd(MONDAY + 23 * HOUR + 30 * MINUTE + 15_000));
+
+        QuietSchedule twoNights = schedule(new QuietSchedule.Window("0,1", 22, 0, 7, 0));
+        assertEquals(MONDAY + DAY + 7 * HOUR, twoNights.nextQuietEnd(MONDAY + 23 * HOUR));
+
+        long daytime = MONDAY + 12 * HOUR + 123;
+        assertEquals(daytime, twoNights.nextQuietEnd(daytime));
+    }
+
+    @Test
+    public void nextQuietEndIsMinusOneWhenTheWholeWeekIsQuiet() {
+        QuietSchedule always = schedule(
+                new QuietSchedule.Window("0,1,2,3,4,5,6", 0, 0, 12, 0),
+                new QuietSchedule.Window("0,1,2,3,4,5,6", 12, 0, 0, 0));
+        assertEquals(-1, always.nextQuietEnd(MONDAY + 5 * HOUR));
+    }
+
+    @Test
+    public void windowRejectsTimesOutOfRange() {
+        int[][] invalid = {{24, 0, 7, 0}, {30, 0, 7, 0}, {-1, 0, 7, 0}, {22, 60, 7, 0}, {22, 0, 26, 0}, {22, 0, 7, -5}};
+        for (int[] times : invalid) {
+            try {
+                new QuietSchedule.Window("0", times[0], times[1], times[2], times[3]);
+                fail("accepted " + Arrays.toString(times));
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        new QuietSchedule.Window("0", 0, 0, 23, 59);
+    }
+
+    @Test
+    public void policyNamesRoundTrip() {
+        for (int policy = QuietSchedule.POLICY_DELIVER; policy <= QuietSchedule.POLICY_DEFER; policy++) {
+            assertEquals(policy, QuietSchedule.parsePolicy(QuietSchedule.policyName(policy)));
+        }
+        assertEquals(-1, QuietSchedule.parsePolicy("mute"));
+    }
+}
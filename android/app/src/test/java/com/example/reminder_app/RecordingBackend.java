@@ -0,0 +1,80 @@
+package com.example.reminder_app;
+
+import android.app.PendingIntent;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AlarmBackend that records every registration instead of talking to AlarmManager.
+ */
+final class RecordingBackend implements AlarmBackend {
+
+    /**
+     * One registration: its {@link DeliveryStrategy} mode, trigger time and window.
+     */
+    static final class Call {
+        final int mode;
+        final long triggerAtMillis;
+        final long windowMillis;
+
+        Call(int mode, long triggerAtMillis, long windowMillis) {
+            this.mode = mode;
+            this.triggerAtMillis = triggerAtMillis;
+            this.windowMillis = windowMillis;
+        }
+    }
+
+    final List<Call> calls = new ArrayList<>();
+    int cancels;
+    boolean exactAllowed = true;
+    /** Every registration, also those not kept in {@link #calls}. */
+    long registrations;
+    /** Benchmarks turn this off, so {@link #calls} does not grow with every iteration. */
+    boolean keepCalls = true;
+
+    @Override
+    public boolean canScheduleExactAlarms() {
+        return exactAllowed;
+    }
+
+    @Override
+    public void setAlarmClock(long triggerAtMillis, PendingIntent operation) {
+        record(new Call(DeliveryStrategy.ALARM_CLOCK, triggerAtMillis, 0));
+    }
+
+    @Override
+    public void setExact(long triggerAtMillis, PendingIntent operation) {
+        record(new Call(DeliveryStrategy.EXACT, triggerAtMillis, 0));
+    }
+
+    @Override
+    public void setWindow(long windowStartMillis, long windowLengthMillis, PendingIntent operation) {
+        record(new Call(DeliveryStrategy.WINDOW, windowStartMillis, windowLengthMillis));
+    }
+
+    @Override
+    public void cancel(PendingIntent operation) {
+        cancels++;
+    }
+
+    private void record(Call call) {
+        registrations++;
+        if (keepCalls) {
+            calls.add(call);
+        }
+    }
+
+    Call last() {
+        return calls.get(calls.size() - 1);
+    }
+
+    int count(int mode) {
+        int count = 0;
+        for (Call call : calls) {
+            if (call.mode == mode) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.reminder_app;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AlarmNotifier that records what would have been posted, as "kind:id" strings.
+ */
+final class RecordingNotifier implements AlarmNotifier {
+
+    final List<String> posted = new ArrayList<>();
+    final List<Integer> cancelled = new ArrayList<>();
+    List<AlarmEntry> lastSummary;
+
+    @Override
+    public void alarm(AlarmEntry entry, boolean snoozable) {
+        posted.add("alarm:" + entry.id);
+    }
+
+    @Override
+    public void burstMember(AlarmEntry entry, boolean snoozable) {
+        posted.add("burstMember:" + entry.id);
+    }
+
+    @Override
+    public void burstSummary(List<AlarmEntry> entries) {
+        posted.add("burstSummary:" + entries.size());
+        lastSummary = new ArrayList<>(entries);
+    }
+
+    @Override
+    public void silent(AlarmEntry entry) {
+        posted.add("silent:" + entry.id);
+    }
+
+    @Override
+    public void group(int id, String heading, List<AlarmEntry> entries) {
+        posted.add("group:" + entries.size());
+    }
+
+    @Override
+    public void cancel(int id) {
+        cancelled.add(id);
+    }
+}
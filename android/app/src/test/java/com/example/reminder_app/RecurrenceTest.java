@@ -0,0 +1,222 @@
+package com.example.reminder_app;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class RecurrenceTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24 * HOUR;
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static final DateTimeFormatter LOCAL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private static final String[] DAY_NAMES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+    private static final ZoneId[] ZONES = {
+            UTC, NEW_YORK, ZoneId.of("Europe/Berlin"), ZoneId.of("Australia/Sydney"),
+            ZoneId.of("Asia/Kolkata"), ZoneId.of("Australia/Lord_Howe")};
+
+    private static long millis(String localDateTime, ZoneId zone) {
+        return LocalDateTime.parse(localDateTime).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    @Test
+    public void ruleWithoutStartIsAnchoredAndCanonicalised() {
+        Recurrence rule = Recurrence.parse("freq=weekly;interval=2", millis("2024-01-03T07:30:00", UTC), UTC);
+
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;BYDAY=WE;DTSTART=20240103T073000", rule.toRule());
+        assertEquals(rule.toRule(), Recurrence.parse(rule.toRule(), 0, NEW_YORK).toRule());
+    }
+
+    @Test
+    public void dailyKeepsItsWallClockTimeAcrossDst() {
+        Recurrence rule = Recurrence.parse("FREQ=DAILY;DTSTART=20240309T070000", 0, NEW_YORK);
+
+        long beforeDst = rule.nextAfter(millis("2024-03-09T08:00:00", NEW_YORK), NEW_YORK);
+
+        assertEquals(millis("2024-03-10T07:00:00", NEW_YORK), beforeDst);
+        assertEquals(23 * HOUR, beforeDst - millis("2024-03-09T07:00:00", NEW_YORK));
+    }
+
+    @Test
+    public void hourlyCountsElapsedTime() {
+        Recurrence rule = Recurrence.parse("FREQ=HOURLY;INTERVAL=3;DTSTART=20240310T000000", 0, NEW_YORK);
+
+        long next = rule.nextAfter(millis("2024-03-10T01:00:00", NEW_YORK), NEW_YORK);
+
+        assertEquals(millis("2024-03-10T00:00:00", NEW_YORK) + 3 * HOUR, next);
+    }
+
+    @Test
+    public void monthlySkipsMonthsWithoutTheDay() {
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY;DTSTART=20240131T090000", 0, UTC);
+
+        assertEquals(millis("2024-03-31T09:00:00", UTC), rule.nextAfter(millis("2024-01-31T09:00:00", UTC), UTC));
+    }
+
+    @Test
+    public void negativeMonthDayCountsFromTheEnd() {
+        Recurrence rule = Recurrence.parse("FREQ=MONTHLY;BYMONTHDAY=-1;DTSTART=20240115T090000", 0, UTC);
+
+        assertEquals(millis("2024-01-31T09:00:00", UTC), rule.nextAfter(millis("2024-01-15T09:00:00", UTC), UTC));
+        assertEquals(millis("2024-02-29T09:00:00", UTC), rule.nextAfter(millis("2024-01-31T09:00:00", UTC), UTC));
+    }
+
+    @Test
+    public void seriesEndsAfterUntil() {
+        Recurrence rule = Recurrence.parse("FREQ=DAILY;UNTIL=20240102T120000Z;DTSTART=20240101T090000", 0, UTC);
+
+        assertEquals(millis("2024-01-02T09:00:00", UTC), rule.nextAfter(millis("2024-01-01T09:00:00", UTC), UTC));
+        assertEquals(-1, rule.nextAfter(millis("2024-01-02T09:00:00", UTC), UTC));
+    }
+
+    @Test
+    public void malformedRulesAreRejected() {
+        String[] rules = {"", "INTERVAL=2", "FREQ=YEARLY", "FREQ=DAILY;INTERVAL=0", "FREQ=WEEKLY;BYDAY=XX",
+                "FREQ=MONTHLY;BYMONTHDAY=32", "FREQ=DAILY;COUNT=3", "FREQ=DAILY;DTSTART=tomorrow", "FREQ"};
+        for (String rule : rules) {
+            try {
+                Recurrence.parse(rule, 0, UTC);
+                fail("accepted " + rule);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Steps a year through thousands of random rules, one nextAfter at a time,
+     * and compares every occurrence with a day-by-day scan of the calendar.
+     */
+    @Test
+    public void yearOfOccurrencesMatchesACalendarScan() {
+        Random random = new Random(42);
+        for (int n = 0; n < 3000; n++) {
+            ZoneId zone = ZONES[random.nextInt(ZONES.length)];
+            String rule = randomRule(random);
+            Recurrence recurrence = Recurrence.parse(rule, 0, zone);
+            LocalDateTime start = LocalDateTime.parse(rule.substring(rule.indexOf("DTSTART=") + 8), LOCAL_FORMAT);
+            long horizon = start.atZone(zone).toInstant().toEpochMilli() + 366 * DAY;
+
+            List<Long> expected = scan(rule, start, zone, horizon);
+            List<Long> actual = new ArrayList<>();
+            long after = Long.MIN_VALUE / 2;
+            while (true) {
+                long next = recurrence.nextAfter(after, zone);
+                if (next < 0 || next > horizon) {
+                    break;
+                }
+                actual.add(next);
+                after = next;
+            }
+            assertEquals(rule + " in " + zone, expected, actual);
+        }
+    }
+
+    private static String randomRule(Random random) {
+        String[] frequencies = {"HOURLY", "DAILY", "WEEKLY", "MONTHLY"};
+        String frequency = frequencies[random.nextInt(frequencies.length)];
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (random.nextBoolean()) {
+            rule.append(";INTERVAL=").append(1 + random.nextInt(frequency.equals("HOURLY") ? 30 : 4));
+        }
+        if (frequency.equals("WEEKLY") && random.nextBoolean()) {
+            rule.append(";BYDAY=");
+            int mask = 1 + random.nextInt(127);
+            boolean first = true;
+            for (int day = 0; day < 7; day++) {
+                if ((mask & (1 << day)) != 0) {
+                    rule.append(first ? "" : ",").append(DAY_NAMES[day]);
+                    first = false;
+                }
+            }
+        }
+        if (frequency.equals("MONTHLY") && random.nextBoolean()) {
+            int day = 1 + random.nextInt(31);
+            rule.append(";BYMONTHDAY=").append(random.nextBoolean() ? day : -day);
+        }
+        LocalDateTime start = LocalDate.of(2023, 1, 1).plusDays(random.nextInt(3 * 365))
+                .atTime(random.nextInt(24), random.nextInt(4) * 15);
+        if (random.nextInt(5) == 0) {
+            LocalDateTime until = start.plusDays(random.nextInt(365));
+            rule.append(";UNTIL=").append(until.format(UTC_FORMAT));
+        }
+        return rule.append(";DTSTART=").append(start.format(LOCAL_FORMAT)).toString();
+    }
+
+    /** Every occurrence up to {@code horizon}, found by checking each calendar day on its own. */
+    private static List<Long> scan(String rule, LocalDateTime start, ZoneId zone, long horizon) {
+        Recurrence canonical = Recurrence.parse(rule, 0, zone);
+        String canonicalRule = canonical.toRule();
+        int interval = intPart(canonicalRule, "INTERVAL", 1);
+        long until = Long.MAX_VALUE;
+        int untilAt = canonicalRule.indexOf("UNTIL=");
+        if (untilAt >= 0) {
+            until = LocalDateTime.parse(canonicalRule.substring(untilAt + 6, untilAt + 21), LOCAL_FORMAT)
+                    .toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        long limit = Math.min(horizon, until);
+
+        List<Long> occurrences = new ArrayList<>();
+        long first = start.atZone(zone).toInstant().toEpochMilli();
+        if (canonicalRule.startsWith("FREQ=HOURLY")) {
+            for (long t = first; t <= limit; t += interval * HOUR) {
+                occurrences.add(t);
+            }
+            return occurrences;
+        }
+
+        LocalDate startDate = start.toLocalDate();
+        LocalDate startWeek = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        YearMonth startMonth = YearMonth.from(startDate);
+        int monthDay = intPart(canonicalRule, "BYMONTHDAY", 0);
+        for (LocalDate date = startDate; date.isBefore(startDate.plusDays(400)); date = date.plusDays(1)) {
+            boolean matches;
+            if (canonicalRule.startsWith("FREQ=DAILY")) {
+                matches = ChronoUnit.DAYS.between(startDate, date) % interval == 0;
+            } else if (canonicalRule.startsWith("FREQ=WEEKLY")) {
+                LocalDate week = date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                String day = DAY_NAMES[date.getDayOfWeek().getValue() - 1];
+                matches = ChronoUnit.WEEKS.between(startWeek, week) % interval == 0
+                        && canonicalRule.matches(".*BYDAY=[A-Z,]*" + day + ".*");
+            } else {
+                YearMonth month = YearMonth.from(date);
+                int day = monthDay > 0 ? monthDay : month.lengthOfMonth() + monthDay + 1;
+                matches = ChronoUnit.MONTHS.between(startMonth, month) % interval == 0
+                        && date.getDayOfMonth() == day;
+            }
+            if (matches) {
+                long t = LocalDateTime.of(date, start.toLocalTime()).atZone(zone).toInstant().toEpochMilli();
+                if (t <= limit) {
+                    occurrences.add(t);
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    private static int intPart(String rule, String key, int defaultValue) {
+        for (String part : rule.split(";")) {
+            if (part.startsWith(key + "=")) {
+                return Integer.parseInt(part.substring(key.length() + 1));
+            }
+        }
+        return defaultValue;
+    }
+}
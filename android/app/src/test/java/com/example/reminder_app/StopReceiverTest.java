@@ -0,0 +1,59 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+public class StopReceiverTest {
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    private final StopReceiver receiver = new StopReceiver();
+
+    private void ring(int id) {
+        AlarmSessions.start(env.context, new AlarmEntry(id, START, "Task " + id, null, "routine"));
+    }
+
+    private void stop(int id) {
+        receiver.handle(env.context, new FakeIntent(null).with("id", id));
+    }
+
+    @Test
+    public void stopEndsOnlyThatAlarm() {
+        ring(1);
+        ring(2);
+
+        stop(1);
+
+        assertNull(AlarmSessions.get(1));
+        assertNotNull(AlarmSessions.get(2));
+        assertTrue(env.notifier.cancelled.contains(1));
+    }
+
+    @Test
+    public void stopForALostSessionOnlyClearsItsNotification() {
+        ring(2);
+
+        stop(7);
+
+        assertNotNull(AlarmSessions.get(2));
+        assertEquals(1, env.sound.refCount);
+        assertTrue(env.notifier.cancelled.contains(7));
+    }
+
+    @Test
+    public void stopWithoutAnIdSilencesEverything() {
+        ring(1);
+        ring(2);
+
+        receiver.handle(env.context, new FakeIntent(null));
+
+        assertTrue(AlarmSessions.isEmpty());
+    }
+}
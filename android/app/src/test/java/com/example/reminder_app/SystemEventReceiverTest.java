@@ -0,0 +1,93 @@
+package com.example.reminder_app;
+
+import static com.example.reminder_app.AlarmEnvironmentRule.START;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import java.util.TimeZone;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class SystemEventReceiverTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long DAY = 24 * HOUR;
+
+    @Rule
+    public final AlarmEnvironmentRule env = new AlarmEnvironmentRule();
+
+    private final SystemEventReceiver receiver = new SystemEventReceiver();
+
+    private void schedule(int id, long time) {
+        schedule(id, time, null);
+    }
+
+    private void schedule(int id, long time, String recurrence) {
+        AlarmScheduler.scheduleExactAlarm(env.context,
+                new AlarmEntry(id, time, "Task " + id, null, "routine", recurrence));
+    }
+
+    @Test
+    public void bootRehydratesPendingReminders() {
+        schedule(1, START + HOUR);
+        schedule(2, START + 2 * HOUR);
+        env.backend.calls.clear();
+
+        receiver.handle(env.context, new FakeIntent(Intent.ACTION_BOOT_COMPLETED));
+
+        assertEquals(2, env.backend.calls.size());
+        assertTrue(env.notifier.posted.isEmpty());
+    }
+
+    @Test
+    public void timeZoneChangeKeepsRecurringRemindersAtTheirLocalTime() {
+        schedule(1, START + 2 * HOUR, "FREQ=DAILY"); // 11:00 UTC
+        schedule(2, START + 2 * HOUR);
+        env.backend.calls.clear();
+
+        TimeZone.setDefault(TimeZone.getTimeZone("Europe/Berlin")); // UTC+1 in January
+        receiver.handle(env.context, new FakeIntent(Intent.ACTION_TIMEZONE_CHANGED));
+
+        assertEquals(START + HOUR, env.store.get(1).timeMillis); // 11:00 in Berlin
+        assertEquals(START + 2 * HOUR, env.store.get(2).timeMillis);
+        assertEquals(1, env.backend.calls.size());
+        assertEquals(START + HOUR, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void clockSetBackRestoresSkippedOccurrences() {
+        schedule(1, START + HOUR - 7 * DAY, "FREQ=DAILY"); // started a week ago, next due at START + HOUR
+        env.backend.calls.clear();
+
+        env.clock.set(START - 2 * DAY);
+        receiver.handle(env.context, new FakeIntent(Intent.ACTION_TIME_CHANGED));
+
+        assertEquals(START + HOUR - 2 * DAY, env.store.get(1).timeMillis);
+        assertEquals(START + HOUR - 2 * DAY, env.backend.last().triggerAtMillis);
+    }
+
+    @Test
+    public void clockChangeLeavesUnmovedRemindersAlone() {
+        schedule(1, START + HOUR, "FREQ=DAILY");
+        schedule(2, START + 2 * HOUR);
+        env.backend.calls.clear();
+
+        env.clock.set(START + 30 * 60_000L);
+        receiver.handle(env.context, new FakeIntent(Intent.ACTION_TIME_CHANGED));
+
+        assertTrue(env.backend.calls.isEmpty());
+    }
+
+    @Test
+    public void spoofedAlarmIsIgnored() {
+        schedule(1, START + HOUR);
+        env.backend.calls.clear();
+
+        receiver.handle(env.context, new FakeIntent(null).with("id", 1).with("title", "Spoofed"));
+
+        assertTrue(env.notifier.posted.isEmpty());
+        assertTrue(env.backend.calls.isEmpty());
+        assertEquals(0, env.sound.refCount);
+    }
+}
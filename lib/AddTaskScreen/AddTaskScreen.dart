@@ -8,6 +8,7 @@ import 'package:reminder_app/AppColors/AppColors.dart';
 import 'package:reminder_app/models/task_model.dart';
 import 'package:reminder_app/providers/family_provider.dart';
 import 'package:reminder_app/providers/task_provider.dart';
+import 'package:reminder_app/services/native_alarm_channel.dart';
 import 'package:reminder_app/utils/auth_utils.dart';
 import 'package:reminder_app/widgets/custom_button.dart';
 import 'package:reminder_app/widgets/custom_snackbar.dart';
@@ -23,8 +24,6 @@ class AddTaskScreen extends StatefulWidget {
 }
 
 class _AddTaskScreenState extends State<AddTaskScreen> {
-  static const platform = MethodChannel('com.example.reminder_app/alarm');
-
   final TextEditingController _taskController = TextEditingController();
   final TextEditingController _voiceInputController = TextEditingController();
   final ImagePicker _imagePicker = ImagePicker();
@@ -236,16 +235,15 @@ class _AddTaskScreenState extends State<AddTaskScreen> {
   ) async {
     try {
       final int alarmId = dateTime.millisecondsSinceEpoch ~/ 1000;
-      final int timeInMillis = dateTime.millisecondsSinceEpoch;
       final String body = 'Assigned to: ${assignees.join(', ')}';
 
-      await platform.invokeMethod('scheduleAlarm', {
-        'time': timeInMillis,
-        'id': alarmId,
-        'title': title,
-        'body': body,
-        'taskType': taskType,
-      });
+      await NativeAlarmChannel.scheduleAlarm(NativeAlarm(
+        id: alarmId,
+        time: dateTime,
+        title: title,
+        body: body,
+        taskType: taskType,
+      ));
 
       debugPrint('Alarm scheduled for: $dateTime');
     } on PlatformException catch (e) {
@@ -0,0 +1,79 @@
+import 'dart:typed_data';
+
+import 'package:firebase_core/firebase_core.dart';
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
+import 'package:flutter/widgets.dart';
+
+import '../firebase_options.dart';
+
+/// Kind of alarm action reported by the native side.
+enum AlarmEventType { fired, snoozed, stopped }
+
+/// One alarm action, as queued by `AlarmEvents` on Android.
+class AlarmEvent {
+  final AlarmEventType type;
+  final int id;
+  final DateTime time;
+
+  const AlarmEvent(this.type, this.id, this.time);
+
+  @override
+  String toString() => 'AlarmEvent(${type.name}, $id, $time)';
+}
+
+typedef AlarmEventHandler = Future<void> Function(List<AlarmEvent> events);
+
+/// Entry point of the headless engine that `ReminderApplication` starts for
+/// native alarm callbacks. It runs without any UI, so it only sets up what
+/// the handlers need and then tells the native side it is listening.
+///
+/// The engine is only started once the app has called
+/// `NativeAlarmChannel.setAlarmEventsEnabled(true)`, and only after nothing
+/// is ringing any more.
+@pragma('vm:entry-point')
+Future<void> alarmEventMain() async {
+  WidgetsFlutterBinding.ensureInitialized();
+  await Firebase.initializeApp(options: DefaultFirebaseOptions.currentPlatform);
+  await AlarmEventDispatcher.listen();
+}
+
+/// Receives batches of alarm actions on the background engine.
+class AlarmEventDispatcher {
+  static const MethodChannel _channel =
+      MethodChannel('com.example.reminder_app/alarm_events');
+
+  /// Called once per native batch. Replace it in [alarmEventMain] to react to
+  /// fires, snoozes and stops, e.g. to mark tasks done or sync them to
+  /// Firestore. A batch is only discarded natively once this completes, so
+  /// after a crash the same events can arrive again.
+  static AlarmEventHandler onEvents = _logEvents;
+
+  static Future<void> listen() async {
+    _channel.setMethodCallHandler((call) async {
+      if (call.method == 'onAlarmEvents') {
+        await onEvents(decodeAlarmEvents(call.arguments as Int64List));
+      }
+    });
+    await _channel.invokeMethod<void>('backgroundReady');
+  }
+
+  static Future<void> _logEvents(List<AlarmEvent> events) async {
+    debugPrint('Alarm events: $events');
+  }
+}
+
+/// Decode the flat `type, id, epochMillis` layout written by `AlarmEvents`.
+List<AlarmEvent> decodeAlarmEvents(Int64List payload) {
+  final events = <AlarmEvent>[];
+  for (var i = 0; i + 2 < payload.length; i += 3) {
+    final type = payload[i] - 1;
+    if (type < 0 || type >= AlarmEventType.values.length) continue;
+    events.add(AlarmEvent(
+      AlarmEventType.values[type],
+      payload[i + 1],
+      DateTime.fromMillisecondsSinceEpoch(payload[i + 2]),
+    ));
+  }
+  return events;
+}
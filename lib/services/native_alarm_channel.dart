@@ -0,0 +1,104 @@
+import 'dart:convert';
+import 'dart:typed_data';
+
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
+
+/// One reminder to hand over to the native Android alarm scheduler.
+class NativeAlarm {
+  final int id;
+  final DateTime time;
+  final String? title;
+  final String? body;
+  final String taskType;
+
+  /// Optional repeat rule, e.g. `FREQ=WEEKLY;BYDAY=MO,TH`. Occurrences after
+  /// the first are computed natively, so the app does not reschedule them.
+  final String? recurrence;
+
+  const NativeAlarm({
+    required this.id,
+    required this.time,
+    this.title,
+    this.body,
+    this.taskType = 'standard',
+    this.recurrence,
+  });
+}
+
+/// Thin wrapper around the `com.example.reminder_app/alarm` channel for
+/// calls that need a packed payload rather than a plain argument map.
+class NativeAlarmChannel {
+  static const MethodChannel _channel =
+      MethodChannel('com.example.reminder_app/alarm');
+
+  /// Schedule (or replace) a single native alarm. The reminder travels as one
+  /// packed buffer in the `scheduleAlarms` layout instead of an argument map.
+  static Future<void> scheduleAlarm(NativeAlarm alarm) {
+    return _channel.invokeMethod<void>(
+      'scheduleAlarm',
+      {'payload': encodeAlarmBatch([alarm])},
+    );
+  }
+
+  /// Opt in to alarm events on the background engine (see
+  /// `alarm_event_dispatcher.dart`). Until this is called with `true` the
+  /// native side records nothing and never starts that engine.
+  static Future<void> setAlarmEventsEnabled(bool enabled) {
+    return _channel.invokeMethod<void>(
+      'setAlarmEventsEnabled',
+      {'enabled': enabled},
+    );
+  }
+
+  /// Replace the full set of pending native alarms with [alarms] in a single
+  /// platform-channel call. The native side only registers or cancels the
+  /// alarms that differ from what it already has scheduled.
+  static Future<Map<dynamic, dynamic>?> scheduleAlarms(
+    List<NativeAlarm> alarms,
+  ) async {
+    try {
+      return await _channel.invokeMethod<Map<dynamic, dynamic>>(
+        'scheduleAlarms',
+        {'payload': encodeAlarmBatch(alarms)},
+      );
+    } on PlatformException catch (e) {
+      debugPrint('Failed to schedule alarm batch: ${e.message}');
+      return null;
+    }
+  }
+}
+
+/// Encode [alarms] in the layout read by `AlarmBatchCodec` on Android.
+Uint8List encodeAlarmBatch(List<NativeAlarm> alarms) {
+  final builder = BytesBuilder(copy: false);
+  final header = ByteData(5)
+    ..setInt8(0, 2)
+    ..setInt32(1, alarms.length);
+  builder.add(header.buffer.asUint8List());
+
+  void addString(String? value) {
+    final lengthBytes = ByteData(4);
+    if (value == null) {
+      lengthBytes.setInt32(0, -1);
+      builder.add(lengthBytes.buffer.asUint8List());
+      return;
+    }
+    final bytes = utf8.encode(value);
+    lengthBytes.setInt32(0, bytes.length);
+    builder.add(lengthBytes.buffer.asUint8List());
+    builder.add(bytes);
+  }
+
+  for (final alarm in alarms) {
+    final fixed = ByteData(12)
+      ..setInt32(0, alarm.id)
+      ..setInt64(4, alarm.time.millisecondsSinceEpoch);
+    builder.add(fixed.buffer.asUint8List());
+    addString(alarm.title);
+    addString(alarm.body);
+    addString(alarm.taskType);
+    addString(alarm.recurrence);
+  }
+  return builder.toBytes();
+}